@@ -0,0 +1,121 @@
+package com.todo.taskManager.benchmark;
+
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.domain.User;
+import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.domain.VerifiedToken;
+import com.todo.taskManager.enumeration.Role;
+import com.todo.taskManager.filter.JwtAuthorizationFilter;
+import com.todo.taskManager.utility.JWTTokenProvider;
+import com.todo.taskManager.utility.JwtKeyRing;
+import com.todo.taskManager.utility.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+/**
+ * Per-request cost of the JWT authorization step. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec
+ * -Djmh.args="JwtAuthorizationFilterBenchmark -prof gc"} to compare
+ * allocation per operation. On JDK 17 with one vCPU, building the
+ * Authentication without details took 31 ns and 144 B per request against
+ * 39 ns and 168 B before, next to 1.8 us and 2160 B for the whole filter:
+ * a small saving, and the chain as a whole has not been load tested.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthorizationFilterBenchmark {
+
+  private static final FilterChain NO_OP_CHAIN = (request, response) -> {};
+
+  private JWTTokenProvider jwtTokenProvider;
+  private JwtAuthorizationFilter filter;
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+  private VerifiedToken verifiedToken;
+
+  @Setup
+  public void setup() throws IOException {
+    jwtTokenProvider =
+      new JWTTokenProvider(
+        new SimpleMeterRegistry(),
+        new JwtKeyRing(
+          Files.createTempDirectory("jwt-keys"),
+          SecurityConstant.KEY_ROTATION_INTERVAL
+        ),
+        new TokenRevocationList()
+      );
+    jwtTokenProvider.init();
+    filter = new JwtAuthorizationFilter(jwtTokenProvider);
+
+    User user = new User();
+    user.setUsername("benchmark");
+    user.setAuthorities(Role.ROLE_SUPER_ADMIN.getAuthorities());
+    String token = jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+    verifiedToken = jwtTokenProvider.verifyToken(token);
+
+    request = new MockHttpServletRequest("GET", "/todo/benchmark");
+    request.addHeader(
+      HttpHeaders.AUTHORIZATION,
+      SecurityConstant.TOKEN_PREFIX + token
+    );
+    response = new MockHttpServletResponse();
+  }
+
+  @Benchmark
+  public Authentication filterAuthenticatedRequest()
+    throws ServletException, IOException {
+    // OncePerRequestFilter marks the request, clear it for the next call
+    request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+    filter.doFilter(request, response, NO_OP_CHAIN);
+    Authentication authentication = SecurityContextHolder
+      .getContext()
+      .getAuthentication();
+    SecurityContextHolder.clearContext();
+    return authentication;
+  }
+
+  /** Built from the cached username and authorities, without details. */
+  @Benchmark
+  public Authentication authenticationPerRequest() {
+    return jwtTokenProvider.getAuthentication(verifiedToken);
+  }
+
+  /** What the filter used to build for every request. */
+  @Benchmark
+  public Authentication authenticationWithDetailsPerRequest() {
+    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+      verifiedToken.getUsername(),
+      null,
+      verifiedToken.getAuthorities()
+    );
+    authentication.setDetails(
+      new WebAuthenticationDetailsSource().buildDetails(request)
+    );
+    return authentication;
+  }
+}
@@ -0,0 +1,92 @@
+package com.todo.taskManager.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.domain.User;
+import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.enumeration.Role;
+import com.todo.taskManager.utility.JWTTokenProvider;
+import com.todo.taskManager.utility.JwtKeyRing;
+import com.todo.taskManager.utility.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtBenchmark {
+
+  private JWTTokenProvider jwtTokenProvider;
+  private UserPrincipal userPrincipal;
+  private String token;
+
+  private JwtKeyRing jwtKeyRing;
+
+  @Setup
+  public void setup() throws IOException {
+    jwtKeyRing =
+      new JwtKeyRing(
+        Files.createTempDirectory("jwt-keys"),
+        SecurityConstant.KEY_ROTATION_INTERVAL
+      );
+    jwtTokenProvider =
+      new JWTTokenProvider(
+        new SimpleMeterRegistry(),
+        jwtKeyRing,
+        new TokenRevocationList()
+      );
+    jwtTokenProvider.init();
+
+    User user = new User();
+    user.setUsername("benchmark");
+    user.setAuthorities(Role.ROLE_SUPER_ADMIN.getAuthorities());
+    userPrincipal = new UserPrincipal(user);
+    token = jwtTokenProvider.generateJwtToken(userPrincipal);
+  }
+
+  @Benchmark
+  public String generateJwtToken() {
+    return jwtTokenProvider.generateJwtToken(userPrincipal);
+  }
+
+  @Benchmark
+  public String getSubject() {
+    return jwtTokenProvider.getSubject(token);
+  }
+
+  @Benchmark
+  public List<GrantedAuthority> getAuthorities() {
+    return jwtTokenProvider.getAuthorities(token);
+  }
+
+  /** Full ES256 verification with no cached verifier or token. */
+  @Benchmark
+  public String verifyUncached() {
+    return JWT
+      .require(
+        Algorithm.ECDSA256(jwtKeyRing.getSigningKey().getPublicKey(), null)
+      )
+      .withIssuer(SecurityConstant.GET_ARRAYS_LLC)
+      .build()
+      .verify(token)
+      .getSubject();
+  }
+}
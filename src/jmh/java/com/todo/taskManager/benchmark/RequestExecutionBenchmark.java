@@ -0,0 +1,104 @@
+package com.todo.taskManager.benchmark;
+
+import com.todo.taskManager.utility.VirtualThreads;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load comparison of the two request execution modes: a burst of
+ * {@code requests} blocking requests, each holding one of
+ * {@code poolSize} "connections" for {@code dbMillis} and then waiting
+ * {@code ioMillis} on a slow call such as SMTP. The platform mode runs on a
+ * pool the size of Tomcat's default {@code threads.max}; the virtual mode
+ * needs Java 21 and starts one virtual thread per request. The score is the
+ * time to drain the burst. Run on a Java 21 JDK with
+ * {@code mvn -Pbenchmark test-compile exec:exec
+ * -Djmh.args="RequestExecutionBenchmark"}; on older runtimes only the
+ * platform mode can run, so pass {@code -p mode=platform}.
+ * <p>
+ * The simulated calls sleep and never pin a carrier, so this shows the
+ * best case. Only the platform mode has been run, on JDK 17 with one vCPU:
+ * 102 ms for 200 requests and 573 ms for 2000. No numbers back the
+ * virtual mode yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class RequestExecutionBenchmark {
+
+  private static final int TOMCAT_MAX_THREADS = 200;
+
+  @Param({ "platform", "virtual" })
+  private String mode;
+
+  @Param({ "200", "2000" })
+  private int requests;
+
+  @Param({ "10" })
+  private int poolSize;
+
+  @Param({ "2" })
+  private int dbMillis;
+
+  @Param({ "50" })
+  private int ioMillis;
+
+  private ExecutorService executor;
+  private Semaphore connections;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    executor =
+      "virtual".equals(mode)
+        ? VirtualThreads.newThreadPerTaskExecutor("bench-virtual-")
+        : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    connections = new Semaphore(poolSize);
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public void burst() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(requests);
+    for (int i = 0; i < requests; i++) {
+      executor.execute(() -> {
+        try {
+          connections.acquire();
+          try {
+            Thread.sleep(dbMillis);
+          } finally {
+            connections.release();
+          }
+          Thread.sleep(ioMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await();
+  }
+}
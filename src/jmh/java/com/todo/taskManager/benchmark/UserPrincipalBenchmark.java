@@ -0,0 +1,46 @@
+package com.todo.taskManager.benchmark;
+
+import com.todo.taskManager.domain.User;
+import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.enumeration.Role;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserPrincipalBenchmark {
+
+  @Param({ "ROLE_USER", "ROLE_SUPER_ADMIN" })
+  private Role role;
+
+  private UserPrincipal userPrincipal;
+
+  @Setup
+  public void setup() {
+    User user = new User();
+    user.setUsername("benchmark");
+    user.setAuthorities(role.getAuthorities());
+    userPrincipal = new UserPrincipal(user);
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return userPrincipal.getAuthorities();
+  }
+}
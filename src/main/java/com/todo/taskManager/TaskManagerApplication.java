@@ -9,17 +9,18 @@ import java.util.List;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
 @SpringBootApplication
+@EnableScheduling
 public class TaskManagerApplication {
 
   public static void main(String[] args) {
     SpringApplication.run(TaskManagerApplication.class, args);
-    new File(FileConstant.USER_FOLDER).mkdirs();
+    new File(FileConstant.STORAGE_FOLDER).mkdirs();
   }
 
   @Bean
@@ -43,6 +44,10 @@ public class TaskManagerApplication {
         "Content-Type",
         "Accept",
         "Jwt-Token",
+        "Refresh-Token",
+        "If-None-Match",
+        "If-Match",
+        "Last-Event-ID",
         "Authorization",
         "Origin, Accept",
         "X-Requested-With",
@@ -57,6 +62,8 @@ public class TaskManagerApplication {
         "Content-Type",
         "Accept",
         "Jwt-Token",
+        "Refresh-Token",
+        "ETag",
         "Authorization",
         "Access-Control-Allow-Origin",
         "Access-Control-Allow-Origin",
@@ -65,7 +72,7 @@ public class TaskManagerApplication {
     );
 
     corsConfiguration.setAllowedMethods(
-      Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS")
+      Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
     );
 
     uBasedCorsConfigurationSource.registerCorsConfiguration(
@@ -75,9 +82,4 @@ public class TaskManagerApplication {
 
     return new CorsFilter(uBasedCorsConfigurationSource);
   }
-
-  @Bean
-  public BCryptPasswordEncoder bCryptPasswordEncoder() {
-    return new BCryptPasswordEncoder();
-  }
 }
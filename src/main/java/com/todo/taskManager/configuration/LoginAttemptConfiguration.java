@@ -0,0 +1,52 @@
+package com.todo.taskManager.configuration;
+
+import com.todo.taskManager.service.InMemoryLoginAttemptStore;
+import com.todo.taskManager.service.JdbcLoginAttemptStore;
+import com.todo.taskManager.service.LoginAttemptStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Picks the login attempt backend from {@code login-attempt.store}:
+ * {@code memory} (default) for a single node, {@code jdbc} to share
+ * lockouts between nodes through the database.
+ */
+@Configuration
+public class LoginAttemptConfiguration {
+
+  @Value("${login-attempt.window-minutes:15}")
+  private long windowMinutes;
+
+  @Bean
+  @ConditionalOnProperty(
+    name = "login-attempt.store",
+    havingValue = "memory",
+    matchIfMissing = true
+  )
+  public LoginAttemptStore inMemoryLoginAttemptStore(
+    @Value("${login-attempt.max-attempts:5}") int maxAttempts,
+    @Value("${login-attempt.maximum-keys:1000000}") long maximumKeys,
+    MeterRegistry meterRegistry
+  ) {
+    return new InMemoryLoginAttemptStore(
+      maxAttempts,
+      TimeUnit.MINUTES.toMillis(windowMinutes),
+      maximumKeys,
+      meterRegistry
+    );
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "login-attempt.store", havingValue = "jdbc")
+  public LoginAttemptStore jdbcLoginAttemptStore(JdbcTemplate jdbcTemplate) {
+    return new JdbcLoginAttemptStore(
+      jdbcTemplate,
+      TimeUnit.MINUTES.toMillis(windowMinutes)
+    );
+  }
+}
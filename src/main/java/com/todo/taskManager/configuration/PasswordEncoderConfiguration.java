@@ -0,0 +1,63 @@
+package com.todo.taskManager.configuration;
+
+import com.todo.taskManager.utility.BCryptCostCalibrator;
+import com.todo.taskManager.utility.OffloadingPasswordEncoder;
+import com.todo.taskManager.utility.TimedBCryptPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt cost comes from {@code security.password.strength} when set,
+ * otherwise it is calibrated at startup so one hash takes about
+ * {@code target-ms} on this host. Stored hashes with a lower cost are
+ * rehashed on the next successful login. Calibration depends on the host
+ * and its load, so a cluster should pin the strength to agree on one cost.
+ */
+@Configuration
+public class PasswordEncoderConfiguration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    PasswordEncoderConfiguration.class
+  );
+
+  @Bean(destroyMethod = "shutdown")
+  public OffloadingPasswordEncoder passwordEncoder(
+    @Value("${security.password.strength:0}") int strength,
+    @Value("${security.password.target-ms:250}") long targetMillis,
+    @Value("${security.password.min-strength:10}") int minimumStrength,
+    @Value("${security.password.max-strength:14}") int maximumStrength,
+    @Value("${security.password.threads:0}") int threads,
+    @Value("${security.password.queue-capacity:64}") int queueCapacity,
+    @Value("${security.password.timeout-ms:5000}") long timeoutMillis,
+    MeterRegistry meterRegistry
+  ) {
+    if (strength <= 0) {
+      strength =
+        BCryptCostCalibrator.calibrate(
+          targetMillis,
+          minimumStrength,
+          maximumStrength
+        );
+      LOGGER.info(
+        "Calibrated BCrypt strength to {} for a {} ms target",
+        strength,
+        targetMillis
+      );
+    }
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    return new OffloadingPasswordEncoder(
+      new TimedBCryptPasswordEncoder(meterRegistry, strength),
+      threads,
+      queueCapacity,
+      timeoutMillis,
+      meterRegistry
+    );
+  }
+}
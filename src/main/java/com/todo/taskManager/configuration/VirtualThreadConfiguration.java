@@ -0,0 +1,84 @@
+package com.todo.taskManager.configuration;
+
+import com.todo.taskManager.filter.RequestConcurrencyLimitFilter;
+import com.todo.taskManager.utility.VirtualThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ExecutorService;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Opt-in with {@code server.virtual-threads.enabled}: Tomcat hands each
+ * request to its own virtual thread, so blocking on JDBC no longer holds one
+ * of {@code server.tomcat.threads.max} platform threads. Concurrency is then
+ * bounded by {@link RequestConcurrencyLimitFilter}, sized from the Hikari
+ * pool. On a JVM without virtual threads the platform pool is kept.
+ * <p>
+ * A virtual thread blocking inside {@code synchronized} pins its carrier,
+ * and there are only about as many carriers as CPUs. This relies on
+ * mysql-connector-j 8.0.33 or newer, which locks without it; mail delivery
+ * stays on platform threads because javax.mail does not. The mode has not
+ * been load tested against the platform pool yet.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration implements DisposableBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    VirtualThreadConfiguration.class
+  );
+  private static final String REQUEST_THREAD_NAME = "http-virtual-";
+
+  private ExecutorService requestExecutor;
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> {
+      if (!VirtualThreads.isSupported()) {
+        LOGGER.warn(
+          "Virtual threads are not available on Java {}, keeping the Tomcat worker pool",
+          Runtime.version()
+        );
+        return;
+      }
+      requestExecutor =
+        VirtualThreads.newThreadPerTaskExecutor(REQUEST_THREAD_NAME);
+      protocolHandler.setExecutor(requestExecutor);
+    };
+  }
+
+  @Bean
+  public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+    @Value("${server.virtual-threads.requests-per-connection:8}") int requestsPerConnection,
+    @Value("${server.virtual-threads.acquire-timeout-ms:1000}") long acquireTimeoutMillis,
+    MeterRegistry meterRegistry
+  ) {
+    FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+      new RequestConcurrencyLimitFilter(
+        poolSize * requestsPerConnection,
+        acquireTimeoutMillis,
+        meterRegistry
+      )
+    );
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+
+  /** Tomcat only stops executors it created itself. */
+  @Override
+  public void destroy() {
+    if (requestExecutor != null) {
+      requestExecutor.shutdown();
+    }
+  }
+}
@@ -16,4 +16,11 @@ public class EmailConstant {
   public static final String SMTP_STARTTLS_ENABLE = "mail.smtp.starttls.enable";
   public static final String SMTP_STARTTTLS_REQUIRED =
     "mail.smtp.starttls.required";
+  public static final String CONNECTION_TIMEOUT = "mail.%s.connectiontimeout";
+  public static final String TIMEOUT = "mail.%s.timeout";
+  public static final String WRITE_TIMEOUT = "mail.%s.writetimeout";
+  public static final int SOCKET_TIMEOUT_MILLIS = 10_000;
+  public static final String MAIL_QUEUE_FULL =
+    "Outbound mail queue is full, try again later";
+  public static final String MAIL_DELIVERY_THREAD_NAME = "mail-delivery-";
 }
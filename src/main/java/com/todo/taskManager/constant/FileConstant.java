@@ -4,14 +4,25 @@ public class FileConstant {
 
   public static final String USER_IMAGE_PATH = "/user/image/";
   public static final String JPG_EXTENSION = "jpg";
+  // pre-sharding layout, only read by UserFileStorage.migrateLegacyFolders
   public static final String USER_FOLDER =
     System.getProperty("user.home") + "/userManagement/user/";
+  public static final String STORAGE_FOLDER =
+    System.getProperty("user.home") + "/userManagement/storage/";
+  public static final String USERS_DIRECTORY = "users";
+  public static final String BLOBS_DIRECTORY = "blobs";
+  public static final int SHARD_LEVELS = 2;
+  public static final int SHARD_WIDTH = 2;
   public static final String DIRECTORY_CREATED = "Created directory for: ";
   public static final String DEFAULT_USER_IMAGE_PATH = "/user/image/profile/";
   public static final String FILE_SAVE_IN_FILE_SYSTEM =
     "Saved file in file system by name: ";
   public static final String DOT = ".";
   public static final String FORWARD_SLASH = "/";
-  public static final String TEMP_PROFILE_IMAGE_BASE_URL =
-    "https://robohash.org/";
+  public static final String PNG_EXTENSION = "png";
+  public static final int AVATAR_SIZE = 250;
+  public static final int AVATAR_GRID = 5;
+  public static final String VARIANT_SEPARATOR = "-";
+  public static final float JPEG_QUALITY = 0.85f;
+  public static final String IMAGE_PROCESSING_THREAD_NAME = "image-processing-";
 }
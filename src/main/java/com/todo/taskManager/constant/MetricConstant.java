@@ -0,0 +1,31 @@
+package com.todo.taskManager.constant;
+
+public class MetricConstant {
+
+  public static final String TODO_SERVICE = "todo.service";
+  public static final String USER_SERVICE = "user.service";
+  public static final String EMAIL_SERVICE = "email.service";
+  public static final String JWT_VERIFICATION = "jwt.verification";
+  public static final String JWT_VERIFIED_TOKEN_CACHE = "jwt.verifiedTokens";
+  public static final String PASSWORD_ENCODE = "password.encode";
+  public static final String PASSWORD_MATCH = "password.match";
+  public static final String PASSWORD_QUEUE_SIZE = "password.queue.size";
+  public static final String PASSWORD_REJECTED = "password.rejected";
+  public static final String HTTP_REQUESTS_ACTIVE = "http.requests.active";
+  public static final String HTTP_REQUESTS_REJECTED = "http.requests.rejected";
+  public static final String MAIL_SEND = "mail.send";
+  public static final String MAIL_RETRIES = "mail.retries";
+  public static final String MAIL_DROPPED = "mail.dropped";
+  public static final String MAIL_QUEUE_SIZE = "mail.queue.size";
+  public static final String IMAGE_QUEUE_SIZE = "image.processing.queue.size";
+  public static final String IMAGE_PROCESSING = "image.processing";
+  public static final String TODO_SEARCH_INDEX = "todoSearchIndex";
+  public static final String TODO_EVENTS_CONNECTIONS = "todo.events.connections";
+  public static final String TODO_EVENTS_EVICTED = "todo.events.evicted";
+  public static final String LOGIN_ATTEMPT_CACHE = "loginAttempts";
+  public static final String LAST_LOGIN_PENDING = "user.lastLogin.pending";
+  public static final String TAG_RESULT = "result";
+  public static final String TAG_CACHE = "cache";
+  public static final String HIT = "hit";
+  public static final String MISS = "miss";
+}
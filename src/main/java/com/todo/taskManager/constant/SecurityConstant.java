@@ -2,9 +2,31 @@ package com.todo.taskManager.constant;
 
 public class SecurityConstant {
 
-  public static final long EXPIRATION_TIME = 432_000_000; // 5 days expressed in milliseconds
+  public static final long EXPIRATION_TIME = 900_000; // 15 minutes expressed in milliseconds
+  public static final long REFRESH_EXPIRATION_TIME = 432_000_000; // 5 days expressed in milliseconds
+  public static final long VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+  public static final long KEY_ROTATION_INTERVAL = 2_592_000_000L; // 30 days expressed in milliseconds
+  public static final long KEY_RELOAD_INTERVAL = 1_000;
+  public static final String JWKS_PATH = "/.well-known/jwks.json";
+  public static final String KEY_ALGORITHM = "EC";
+  public static final String KEY_CURVE = "secp256r1";
+  public static final String PRIVATE_KEY_EXTENSION = ".key";
+  public static final String PUBLIC_KEY_EXTENSION = ".pub";
+  public static final String UNKNOWN_SIGNING_KEY = "Token was signed with an unknown key";
+  public static final String NO_SIGNING_KEY = "This node has no JWT signing key";
+  public static final String PASSWORD_HASHING_BUSY =
+    "Too many sign-ins at once, please try again shortly";
+  public static final String SERVER_BUSY =
+    "Server is busy, please try again shortly";
+  public static final String PASSWORD_HASHING_THREAD_NAME = "password-hashing-";
   public static final String TOKEN_PREFIX = "Bearer ";
   public static final String JWT_TOKEN_HEADER = "Jwt-Token";
+  public static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
+  public static final String TOKEN_TYPE = "token_type";
+  public static final String ACCESS_TOKEN_TYPE = "access";
+  public static final String REFRESH_TOKEN_TYPE = "refresh";
+  public static final String WRONG_TOKEN_TYPE = "Token cannot be used here";
+  public static final String TOKEN_REVOKED = "Token has been revoked";
   public static final String TOKEN_CANNOT_BE_VERIFIED =
     "Token cannot be verified";
   public static final String GET_ARRAYS_LLC = "Get Arrays, LLC";
@@ -16,10 +38,15 @@ public class SecurityConstant {
   public static final String ACCESS_DENIED_MESSAGE =
     "You do not have permission to access this page";
   public static final String OPTIONS_HTTP_METHOD = "OPTIONS";
+  // authenticated by the refresh token it carries, not by the filter chain
+  public static final String TOKEN_REFRESH_URL = "/user/token/refresh";
   public static final String[] PUBLIC_URLS = {
     "/user/login",
     "/user/register",
     "/user/image/**",
+    JWKS_PATH,
+    "/actuator/health",
+    "/actuator/prometheus",
   };
   // public static final String[] PUBLIC_URLS = { "**" };
 
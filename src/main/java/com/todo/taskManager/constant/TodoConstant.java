@@ -0,0 +1,38 @@
+package com.todo.taskManager.constant;
+
+public class TodoConstant {
+
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+  public static final int STREAM_FETCH_SIZE = 500;
+  public static final int MAX_BATCH_SIZE = 1000;
+  // 1000-01-02: a day inside the MySQL datetime range in any time zone
+  public static final long EARLIEST_DUE_DATE = -30610137600000L;
+  public static final int DEFAULT_SEARCH_LIMIT = 20;
+  public static final int MAX_SEARCH_LIMIT = 100;
+  public static final int DEFAULT_SUGGESTION_LIMIT = 10;
+  public static final int MAX_PREFIX_EXPANSIONS = 64;
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+  public static final String EVENT_CREATED = "created";
+  public static final String EVENT_UPDATED = "updated";
+  public static final String EVENT_DELETED = "deleted";
+  public static final String EVENT_CHANGES = "changes";
+  public static final String HEARTBEAT_COMMENT = "heartbeat";
+  public static final String EVENT_DISPATCH_THREAD_NAME = "todo-events-";
+  public static final String NO_USER_FOUND_BY_USERNAME =
+    "User with username %s does not exist";
+  public static final String NO_TODO_FOUND_BY_ID =
+    "Todo with id %s does not exsist";
+  public static final String TODO_VERSION_CONFLICT =
+    "Todo with id %s has changed since it was read";
+  public static final String BATCH_TOO_LARGE =
+    "A batch can contain at most %d items";
+  public static final String TOO_MANY_EVENT_SUBSCRIPTIONS =
+    "Too many open event streams, please try again later";
+  public static final String EVENT_SEND_TIMED_OUT =
+    "Event stream write timed out";
+  public static final String TODO_CREATED = "Created";
+  public static final String TODO_UPDATED = "Updated";
+  public static final String TODO_COMPLETED = "Completed";
+  public static final String TODO_DELETED = "Deleted";
+}
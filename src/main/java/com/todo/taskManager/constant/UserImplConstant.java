@@ -9,10 +9,13 @@ public class UserImplConstant {
     "No user found by username";
   public static final String FOUND_USER_BY_USERNAME =
     "Returing found user by username";
+  public static final String REHASHED_PASSWORD =
+    "Rehashed password with the current BCrypt strength for user: ";
   public static final String NO_USER_FOUND_BY_EMAIL =
     "No user found for email: ";
   public static final String EMAIL_SENT =
     "An email with a new password was sent to: ";
   public static final String USER_DELETED_SUCESSFULLY =
     "User deleted successfully: ";
+  public static final String LOGGED_OUT = "Logged out successfully";
 }
@@ -0,0 +1,62 @@
+package com.todo.taskManager.domain;
+
+import org.springframework.http.HttpStatus;
+
+public class BatchItemResult {
+
+  private int index;
+  private Long id;
+  private int httpStatusCode;
+  private HttpStatus httpStatus;
+  private String message;
+
+  public BatchItemResult() {}
+
+  public BatchItemResult(int index, Long id, HttpStatus httpStatus, String message) {
+    this.index = index;
+    this.id = id;
+    this.httpStatusCode = httpStatus.value();
+    this.httpStatus = httpStatus;
+    this.message = message;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public int getHttpStatusCode() {
+    return httpStatusCode;
+  }
+
+  public void setHttpStatusCode(int httpStatusCode) {
+    this.httpStatusCode = httpStatusCode;
+  }
+
+  public HttpStatus getHttpStatus() {
+    return httpStatus;
+  }
+
+  public void setHttpStatus(HttpStatus httpStatus) {
+    this.httpStatus = httpStatus;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+}
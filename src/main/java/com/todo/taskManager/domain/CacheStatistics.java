@@ -0,0 +1,72 @@
+package com.todo.taskManager.domain;
+
+import com.google.common.cache.CacheStats;
+
+public class CacheStatistics {
+
+  private String name;
+  private long size;
+  private long hitCount;
+  private long missCount;
+  private double hitRate;
+  private long evictionCount;
+
+  public CacheStatistics() {}
+
+  public CacheStatistics(String name, long size, CacheStats stats) {
+    this.name = name;
+    this.size = size;
+    this.hitCount = stats.hitCount();
+    this.missCount = stats.missCount();
+    this.hitRate = stats.hitRate();
+    this.evictionCount = stats.evictionCount();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public void setSize(long size) {
+    this.size = size;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public void setHitCount(long hitCount) {
+    this.hitCount = hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public void setMissCount(long missCount) {
+    this.missCount = missCount;
+  }
+
+  public double getHitRate() {
+    return hitRate;
+  }
+
+  public void setHitRate(double hitRate) {
+    this.hitRate = hitRate;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public void setEvictionCount(long evictionCount) {
+    this.evictionCount = evictionCount;
+  }
+}
@@ -0,0 +1,34 @@
+package com.todo.taskManager.domain;
+
+import org.springframework.core.io.Resource;
+
+public class ProfileImage {
+
+  private final Resource resource;
+  private final long lastModified;
+  private final long size;
+
+  public ProfileImage(Resource resource, long lastModified, long size) {
+    this.resource = resource;
+    this.lastModified = lastModified;
+    this.size = size;
+  }
+
+  public Resource getResource() {
+    return resource;
+  }
+
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public String getETag() {
+    return (
+      "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\""
+    );
+  }
+}
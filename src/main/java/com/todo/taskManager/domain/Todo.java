@@ -1,22 +1,39 @@
 package com.todo.taskManager.domain;
 
 import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.TableGenerator;
 
 @Entity
 public class Todo implements Serializable {
 
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "todo_id")
+  // ids are reserved 50 at a time to match hibernate.jdbc.batch_size
+  @TableGenerator(
+    name = "todo_id",
+    table = "todo_id_sequence",
+    pkColumnName = "sequence_name",
+    valueColumnName = "next_val",
+    pkColumnValue = "todo",
+    allocationSize = 50
+  )
   private Long id;
 
   private String todoTitle;
   private String username;
   private String description;
-  private String targetDate;
+  // indexed with username for the due date queries
+  @Column(name = "due_at")
+  private Date targetDate;
   private boolean done;
+  // list version of the user at this todo's last change, set by the service
+  private long version;
 
   public Todo() {}
 
@@ -25,7 +42,7 @@ public class Todo implements Serializable {
     String todoTitle,
     String username,
     String description,
-    String targetDate,
+    Date targetDate,
     boolean done
   ) {
     this.id = id;
@@ -68,11 +85,11 @@ public class Todo implements Serializable {
     this.description = description;
   }
 
-  public String getTargetDate() {
+  public Date getTargetDate() {
     return targetDate;
   }
 
-  public void setTargetDate(String targetDate) {
+  public void setTargetDate(Date targetDate) {
     this.targetDate = targetDate;
   }
 
@@ -84,6 +101,14 @@ public class Todo implements Serializable {
     this.done = done;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
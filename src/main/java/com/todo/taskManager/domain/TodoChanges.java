@@ -0,0 +1,62 @@
+package com.todo.taskManager.domain;
+
+import java.util.List;
+
+/**
+ * Todos changed and deleted after a client's last seen list version. When
+ * {@code fullResync} is set the tombstones needed for a delta are gone and
+ * {@code todos} is the whole list instead.
+ */
+public class TodoChanges {
+
+  private long version;
+  private boolean fullResync;
+  private List<Todo> todos;
+  private List<Long> deletedIds;
+
+  public TodoChanges() {}
+
+  public TodoChanges(
+    long version,
+    boolean fullResync,
+    List<Todo> todos,
+    List<Long> deletedIds
+  ) {
+    this.version = version;
+    this.fullResync = fullResync;
+    this.todos = todos;
+    this.deletedIds = deletedIds;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public boolean isFullResync() {
+    return fullResync;
+  }
+
+  public void setFullResync(boolean fullResync) {
+    this.fullResync = fullResync;
+  }
+
+  public List<Todo> getTodos() {
+    return todos;
+  }
+
+  public void setTodos(List<Todo> todos) {
+    this.todos = todos;
+  }
+
+  public List<Long> getDeletedIds() {
+    return deletedIds;
+  }
+
+  public void setDeletedIds(List<Long> deletedIds) {
+    this.deletedIds = deletedIds;
+  }
+}
@@ -0,0 +1,47 @@
+package com.todo.taskManager.domain;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A page of todos ordered by due date. The next page starts after
+ * ({@code nextDueDate}, {@code nextId}); both are null on the last page.
+ */
+public class TodoDuePage {
+
+  private List<Todo> todos;
+  private Date nextDueDate;
+  private Long nextId;
+
+  public TodoDuePage() {}
+
+  public TodoDuePage(List<Todo> todos, Date nextDueDate, Long nextId) {
+    this.todos = todos;
+    this.nextDueDate = nextDueDate;
+    this.nextId = nextId;
+  }
+
+  public List<Todo> getTodos() {
+    return todos;
+  }
+
+  public void setTodos(List<Todo> todos) {
+    this.todos = todos;
+  }
+
+  public Date getNextDueDate() {
+    return nextDueDate;
+  }
+
+  public void setNextDueDate(Date nextDueDate) {
+    this.nextDueDate = nextDueDate;
+  }
+
+  public Long getNextId() {
+    return nextId;
+  }
+
+  public void setNextId(Long nextId) {
+    this.nextId = nextId;
+  }
+}
@@ -0,0 +1,32 @@
+package com.todo.taskManager.domain;
+
+import java.util.List;
+
+public class TodoPage {
+
+  private List<Todo> todos;
+  private Long nextCursor;
+
+  public TodoPage() {}
+
+  public TodoPage(List<Todo> todos, Long nextCursor) {
+    this.todos = todos;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<Todo> getTodos() {
+    return todos;
+  }
+
+  public void setTodos(List<Todo> todos) {
+    this.todos = todos;
+  }
+
+  public Long getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(Long nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
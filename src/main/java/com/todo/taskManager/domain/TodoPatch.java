@@ -0,0 +1,49 @@
+package com.todo.taskManager.domain;
+
+import java.util.Date;
+
+/**
+ * Fields of a todo to change. Fields left out of the request stay null
+ * and keep their current value, so only the columns sent are written.
+ */
+public class TodoPatch {
+
+  private String todoTitle;
+  private String description;
+  private Date targetDate;
+  private Boolean done;
+
+  public TodoPatch() {}
+
+  public String getTodoTitle() {
+    return todoTitle;
+  }
+
+  public void setTodoTitle(String todoTitle) {
+    this.todoTitle = todoTitle;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public Date getTargetDate() {
+    return targetDate;
+  }
+
+  public void setTargetDate(Date targetDate) {
+    this.targetDate = targetDate;
+  }
+
+  public Boolean getDone() {
+    return done;
+  }
+
+  public void setDone(Boolean done) {
+    this.done = done;
+  }
+}
@@ -0,0 +1,63 @@
+package com.todo.taskManager.domain;
+
+import java.util.Date;
+import java.util.List;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+public class VerifiedToken {
+
+  private final String jti;
+  private final String username;
+  private final List<GrantedAuthority> authorities;
+  private final Date issuedAt;
+  private final Date expiresAt;
+
+  public VerifiedToken(
+    String jti,
+    String username,
+    List<GrantedAuthority> authorities,
+    Date issuedAt,
+    Date expiresAt
+  ) {
+    this.jti = jti;
+    this.username = username;
+    // shared by every request presenting the token, so never changed
+    this.authorities = List.copyOf(authorities);
+    this.issuedAt = issuedAt;
+    this.expiresAt = expiresAt;
+  }
+
+  public String getJti() {
+    return jti;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public List<GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  public Date getIssuedAt() {
+    return issuedAt;
+  }
+
+  public Date getExpiresAt() {
+    return expiresAt;
+  }
+
+  /**
+   * A new Authentication for each request: downstream code may set details
+   * on it or erase credentials, which must not leak between requests.
+   */
+  public Authentication getAuthentication() {
+    return new UsernamePasswordAuthenticationToken(username, null, authorities);
+  }
+
+  public boolean isExpired() {
+    return expiresAt == null || expiresAt.before(new Date());
+  }
+}
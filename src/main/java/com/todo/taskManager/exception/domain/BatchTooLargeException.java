@@ -0,0 +1,8 @@
+package com.todo.taskManager.exception.domain;
+
+public class BatchTooLargeException extends Exception {
+
+  public BatchTooLargeException(String message) {
+    super(message);
+  }
+}
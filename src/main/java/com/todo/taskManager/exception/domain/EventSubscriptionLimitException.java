@@ -0,0 +1,8 @@
+package com.todo.taskManager.exception.domain;
+
+public class EventSubscriptionLimitException extends Exception {
+
+  public EventSubscriptionLimitException(String message) {
+    super(message);
+  }
+}
@@ -1,5 +1,6 @@
 package com.todo.taskManager.exception.domain;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.todo.taskManager.domain.HttpResponse;
 import java.io.IOException;
@@ -68,6 +69,13 @@ public class ExceptionHandling implements ErrorController {
     return createHttpResponse(HttpStatus.UNAUTHORIZED, exception.getMessage());
   }
 
+  @ExceptionHandler(JWTVerificationException.class)
+  private ResponseEntity<HttpResponse> jwtVerificationException(
+    JWTVerificationException exception
+  ) {
+    return createHttpResponse(HttpStatus.UNAUTHORIZED, exception.getMessage());
+  }
+
   @ExceptionHandler(EmailExistException.class)
   private ResponseEntity<HttpResponse> emailExistException(
     EmailExistException exception
@@ -152,6 +160,44 @@ public class ExceptionHandling implements ErrorController {
     return createHttpResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
   }
 
+  @ExceptionHandler(BatchTooLargeException.class)
+  private ResponseEntity<HttpResponse> batchTooLargeException(
+    BatchTooLargeException exception
+  ) {
+    return createHttpResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
+  }
+
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  private ResponseEntity<HttpResponse> passwordHashingBusyException(
+    PasswordHashingBusyException exception
+  ) {
+    LOGGER.warn(exception.getMessage());
+    return createHttpResponse(
+      HttpStatus.SERVICE_UNAVAILABLE,
+      exception.getMessage()
+    );
+  }
+
+  @ExceptionHandler(TodoVersionConflictException.class)
+  private ResponseEntity<HttpResponse> todoVersionConflictException(
+    TodoVersionConflictException exception
+  ) {
+    return createHttpResponse(
+      HttpStatus.PRECONDITION_FAILED,
+      exception.getMessage()
+    );
+  }
+
+  @ExceptionHandler(EventSubscriptionLimitException.class)
+  private ResponseEntity<HttpResponse> eventSubscriptionLimitException(
+    EventSubscriptionLimitException exception
+  ) {
+    return createHttpResponse(
+      HttpStatus.SERVICE_UNAVAILABLE,
+      exception.getMessage()
+    );
+  }
+
   @ExceptionHandler(IOException.class)
   private ResponseEntity<HttpResponse> iOException(IOException exception) {
     LOGGER.error(exception.getMessage());
@@ -0,0 +1,12 @@
+package com.todo.taskManager.exception.domain;
+
+/**
+ * Unchecked because it is raised from inside {@code PasswordEncoder}
+ * calls, which cannot declare checked exceptions.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+  public PasswordHashingBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.todo.taskManager.exception.domain;
+
+public class TodoVersionConflictException extends Exception {
+
+  public TodoVersionConflictException(String message) {
+    super(message);
+  }
+}
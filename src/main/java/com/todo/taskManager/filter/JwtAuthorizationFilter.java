@@ -1,30 +1,40 @@
 package com.todo.taskManager.filter;
 
 import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.domain.VerifiedToken;
 import com.todo.taskManager.utility.JWTTokenProvider;
 import java.io.IOException;
-import java.util.List;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 @Component
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
+  private static final RequestMatcher TOKEN_REFRESH = new AntPathRequestMatcher(
+    SecurityConstant.TOKEN_REFRESH_URL
+  );
+
   private JWTTokenProvider jwtTokenProvider;
 
   public JwtAuthorizationFilter(JWTTokenProvider jwtTokenProvider) {
     this.jwtTokenProvider = jwtTokenProvider;
   }
 
+  /** An expired access token sent along must not fail its own refresh. */
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return TOKEN_REFRESH.matches(request);
+  }
+
   @Override
   protected void doFilterInternal(
     HttpServletRequest request,
@@ -48,22 +58,16 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
       String token = authorizationHeader.substring(
         SecurityConstant.TOKEN_PREFIX.length()
       );
-      String username = jwtTokenProvider.getSubject(token);
+      VerifiedToken verifiedToken = jwtTokenProvider.verifyToken(token);
+      String username = verifiedToken.getUsername();
 
       if (
-        jwtTokenProvider.isTokenValid(username, token) &&
+        jwtTokenProvider.isTokenValid(username, verifiedToken) &&
         SecurityContextHolder.getContext().getAuthentication() == null
       ) {
-        List<GrantedAuthority> authorities = jwtTokenProvider.getAuthorities(
-          token
-        );
-
-        Authentication authentication = jwtTokenProvider.getAuthentication(
-          username,
-          authorities,
-          request
-        );
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        SecurityContextHolder
+          .getContext()
+          .setAuthentication(jwtTokenProvider.getAuthentication(verifiedToken));
       } else {
         SecurityContextHolder.clearContext();
       }
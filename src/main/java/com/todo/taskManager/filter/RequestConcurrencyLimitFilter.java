@@ -0,0 +1,93 @@
+package com.todo.taskManager.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.domain.HttpResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps requests in flight once the worker pool no longer does. With one
+ * virtual thread per request the limit comes from the connection pool
+ * instead: requests beyond it wait up to {@code acquireTimeoutMillis} and
+ * are then turned away with a 503 rather than queueing on Hikari. Several
+ * requests per connection only help while JDBC calls do not pin carriers;
+ * with a driver that does, the carrier count is the real limit.
+ */
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private final Semaphore permits;
+  private final long acquireTimeoutMillis;
+  private final Counter rejectedCounter;
+
+  public RequestConcurrencyLimitFilter(
+    int maxConcurrentRequests,
+    long acquireTimeoutMillis,
+    MeterRegistry meterRegistry
+  ) {
+    this.permits = new Semaphore(maxConcurrentRequests);
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.rejectedCounter =
+      meterRegistry.counter(MetricConstant.HTTP_REQUESTS_REJECTED);
+    meterRegistry.gauge(
+      MetricConstant.HTTP_REQUESTS_ACTIVE,
+      permits,
+      semaphore -> maxConcurrentRequests - semaphore.availablePermits()
+    );
+  }
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain filterChain
+  ) throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      rejectedCounter.increment();
+      reject(response);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void reject(HttpServletResponse response) throws IOException {
+    HttpResponse httpResponse = new HttpResponse(
+      HttpStatus.SERVICE_UNAVAILABLE.value(),
+      HttpStatus.SERVICE_UNAVAILABLE,
+      HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase().toUpperCase(),
+      SecurityConstant.SERVER_BUSY
+    );
+
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+    OutputStream outputStream = response.getOutputStream();
+    ObjectMapper mapper = new ObjectMapper();
+
+    mapper.writeValue(outputStream, httpResponse);
+    outputStream.flush();
+  }
+}
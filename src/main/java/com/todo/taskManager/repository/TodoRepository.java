@@ -1,11 +1,125 @@
 package com.todo.taskManager.repository;
 
+import com.todo.taskManager.constant.TodoConstant;
 import com.todo.taskManager.domain.Todo;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository
+  extends JpaRepository<Todo, Long>, TodoRepositoryCustom {
   List<Todo> findByUsername(String username);
+
+  List<Todo> findByUsernameAndIdGreaterThanOrderByIdAsc(
+    String username,
+    Long id,
+    Pageable pageable
+  );
+
+  @QueryHints(
+    @QueryHint(
+      name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE,
+      value = "" + TodoConstant.STREAM_FETCH_SIZE
+    )
+  )
+  @Query("select t from Todo t where t.username = :username order by t.id")
+  Stream<Todo> streamByUsername(@Param("username") String username);
+
+  // keyset pages over idx_todo_username_due_at; the plain lower bound on
+  // the due date gives MySQL the range start, the OR breaks ties by id
+  @Query(
+    "select t from Todo t where t.username = :username" +
+    " and t.targetDate >= :afterDate and t.targetDate < :to" +
+    " and (t.targetDate > :afterDate or t.id > :afterId)" +
+    " order by t.targetDate, t.id"
+  )
+  List<Todo> findDueBefore(
+    @Param("username") String username,
+    @Param("afterDate") Date afterDate,
+    @Param("afterId") Long afterId,
+    @Param("to") Date to,
+    Pageable pageable
+  );
+
+  @Query(
+    "select t from Todo t where t.username = :username and t.done = false" +
+    " and t.targetDate >= :afterDate and t.targetDate < :to" +
+    " and (t.targetDate > :afterDate or t.id > :afterId)" +
+    " order by t.targetDate, t.id"
+  )
+  List<Todo> findOpenDueBefore(
+    @Param("username") String username,
+    @Param("afterDate") Date afterDate,
+    @Param("afterId") Long afterId,
+    @Param("to") Date to,
+    Pageable pageable
+  );
+
+  List<Todo> findByUsernameAndVersionGreaterThan(String username, long version);
+
+  /** Pairs of id and username for the todos that exist. */
+  @Query("select t.id, t.username from Todo t where t.id in :ids")
+  List<Object[]> findOwners(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Replaces the todo's fields in one statement if it still belongs to
+   * {@code owner} and, when {@code expectedVersion} is given, is still at
+   * that version. {@code username} is the owner afterwards. Returns the
+   * number of rows changed.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+    "update Todo t set t.todoTitle = :todoTitle, t.username = :username," +
+    " t.description = :description, t.targetDate = :targetDate," +
+    " t.done = :done, t.version = :version" +
+    " where t.id = :id" +
+    " and (t.username = :owner or (:owner is null and t.username is null))" +
+    " and (:expectedVersion is null or t.version = :expectedVersion)"
+  )
+  int updateIfCurrent(
+    @Param("id") Long id,
+    @Param("owner") String owner,
+    @Param("expectedVersion") Long expectedVersion,
+    @Param("todoTitle") String todoTitle,
+    @Param("username") String username,
+    @Param("description") String description,
+    @Param("targetDate") Date targetDate,
+    @Param("done") boolean done,
+    @Param("version") long version
+  );
+
+  @Modifying(clearAutomatically = true)
+  @Query(
+    "delete from Todo t where t.id = :id" +
+    " and (t.username = :owner or (:owner is null and t.username is null))" +
+    " and (:expectedVersion is null or t.version = :expectedVersion)"
+  )
+  int deleteIfCurrent(
+    @Param("id") Long id,
+    @Param("owner") String owner,
+    @Param("expectedVersion") Long expectedVersion
+  );
+
+  @Modifying(clearAutomatically = true)
+  @Query("delete from Todo t where t.id = :id")
+  int deleteIfPresent(@Param("id") Long id);
+
+  @Modifying(clearAutomatically = true)
+  @Query(
+    "update Todo t set t.done = true, t.version = :version where t.id in :ids"
+  )
+  int markDone(
+    @Param("ids") Collection<Long> ids,
+    @Param("version") long version
+  );
 }
@@ -0,0 +1,18 @@
+package com.todo.taskManager.repository;
+
+import com.todo.taskManager.domain.TodoPatch;
+
+public interface TodoRepositoryCustom {
+  /**
+   * Writes the patched columns and the new version in one statement if the
+   * todo still belongs to {@code username} and, when {@code expectedVersion}
+   * is given, is still at that version. Returns the number of rows changed.
+   */
+  int patchIfCurrent(
+    Long id,
+    String username,
+    Long expectedVersion,
+    TodoPatch patch,
+    long version
+  );
+}
@@ -0,0 +1,57 @@
+package com.todo.taskManager.repository;
+
+import com.todo.taskManager.domain.Todo;
+import com.todo.taskManager.domain.TodoPatch;
+import java.util.Date;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+public class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public int patchIfCurrent(
+    Long id,
+    String username,
+    Long expectedVersion,
+    TodoPatch patch,
+    long version
+  ) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<Todo> update = builder.createCriteriaUpdate(Todo.class);
+    Root<Todo> todo = update.from(Todo.class);
+    if (patch.getTodoTitle() != null) {
+      update.set(todo.<String>get("todoTitle"), patch.getTodoTitle());
+    }
+    if (patch.getDescription() != null) {
+      update.set(todo.<String>get("description"), patch.getDescription());
+    }
+    if (patch.getTargetDate() != null) {
+      update.set(todo.<Date>get("targetDate"), patch.getTargetDate());
+    }
+    if (patch.getDone() != null) {
+      update.set(todo.<Boolean>get("done"), patch.getDone());
+    }
+    update.set(todo.<Long>get("version"), version);
+
+    Predicate current = builder.and(
+      builder.equal(todo.get("id"), id),
+      builder.equal(todo.get("username"), username)
+    );
+    if (expectedVersion != null) {
+      current = builder.and(current, builder.equal(todo.get("version"), expectedVersion));
+    }
+    update.where(current);
+
+    int updated = entityManager.createQuery(update).executeUpdate();
+    // as @Modifying(clearAutomatically = true) does for the other updates
+    entityManager.clear();
+    return updated;
+  }
+}
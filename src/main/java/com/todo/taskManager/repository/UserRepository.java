@@ -1,7 +1,11 @@
 package com.todo.taskManager.repository;
 
 import com.todo.taskManager.domain.User;
+import java.util.Date;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -9,4 +13,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
   User findUserByUsername(String username);
 
   User findUserByEmail(String email);
+
+  @Modifying
+  @Query(
+    "update User u set u.lastLoginDateDisplay = u.lastLoginDate, " +
+    "u.lastLoginDate = :loginDate where u.username = :username"
+  )
+  int updateLastLoginDate(
+    @Param("username") String username,
+    @Param("loginDate") Date loginDate
+  );
 }
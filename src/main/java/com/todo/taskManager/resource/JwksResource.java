@@ -0,0 +1,67 @@
+package com.todo.taskManager.resource;
+
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.exception.domain.ExceptionHandling;
+import com.todo.taskManager.utility.JwtKeyRing;
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Publishes the JWT verification keys as a JSON Web Key Set. */
+@RestController
+public class JwksResource extends ExceptionHandling {
+
+  private static final int P256_COORDINATE_BYTES = 32;
+
+  private JwtKeyRing jwtKeyRing;
+
+  @Autowired
+  public JwksResource(JwtKeyRing jwtKeyRing) {
+    this.jwtKeyRing = jwtKeyRing;
+  }
+
+  @GetMapping(SecurityConstant.JWKS_PATH)
+  public ResponseEntity<Map<String, List<Map<String, String>>>> getKeys() {
+    List<Map<String, String>> keys = new ArrayList<>();
+    for (JwtKeyRing.SigningKey key : jwtKeyRing.getKeys()) {
+      ECPublicKey publicKey = key.getPublicKey();
+      Map<String, String> jwk = new LinkedHashMap<>();
+      jwk.put("kty", "EC");
+      jwk.put("crv", "P-256");
+      jwk.put("use", "sig");
+      jwk.put("alg", "ES256");
+      jwk.put("kid", key.getKid());
+      jwk.put("x", encode(publicKey.getW().getAffineX()));
+      jwk.put("y", encode(publicKey.getW().getAffineY()));
+      keys.add(jwk);
+    }
+    return ResponseEntity
+      .ok()
+      .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+      .body(Map.of("keys", keys));
+  }
+
+  private static String encode(BigInteger coordinate) {
+    byte[] bytes = coordinate.toByteArray();
+    byte[] padded = new byte[P256_COORDINATE_BYTES];
+    int length = Math.min(bytes.length, P256_COORDINATE_BYTES);
+    System.arraycopy(
+      bytes,
+      bytes.length - length,
+      padded,
+      P256_COORDINATE_BYTES - length,
+      length
+    );
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+  }
+}
@@ -1,41 +1,254 @@
 package com.todo.taskManager.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.taskManager.constant.TodoConstant;
+import com.todo.taskManager.domain.BatchItemResult;
 import com.todo.taskManager.domain.Todo;
+import com.todo.taskManager.domain.TodoChanges;
+import com.todo.taskManager.domain.TodoDuePage;
+import com.todo.taskManager.domain.TodoPage;
+import com.todo.taskManager.domain.TodoPatch;
+import com.todo.taskManager.exception.domain.BatchTooLargeException;
+import com.todo.taskManager.exception.domain.EventSubscriptionLimitException;
 import com.todo.taskManager.exception.domain.ExceptionHandling;
 import com.todo.taskManager.exception.domain.TodoNotFoundException;
+import com.todo.taskManager.exception.domain.TodoVersionConflictException;
 import com.todo.taskManager.exception.domain.UserNotFoundException;
 import com.todo.taskManager.service.TodoService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(path = { "", "/todo" })
 public class TodoResource extends ExceptionHandling {
 
   private TodoService todoService;
+  private ObjectMapper objectMapper;
 
   @Autowired
-  public TodoResource(TodoService todoService) {
+  public TodoResource(TodoService todoService, ObjectMapper objectMapper) {
     this.todoService = todoService;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping("/{username}")
   public ResponseEntity<List<Todo>> getTodos(
-    @PathVariable("username") String username
+    @PathVariable("username") String username,
+    WebRequest webRequest
   ) throws UserNotFoundException {
+    // the version is read before the list, so a concurrent write can only
+    // leave the ETag older than the body and cause one extra 200
+    String eTag = String.valueOf(todoService.getListVersion(username));
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
     List<Todo> list = todoService.getTodos(username);
 
-    return new ResponseEntity<>(list, HttpStatus.OK);
+    return ResponseEntity.ok().eTag(eTag).body(list);
+  }
+
+  @GetMapping("/{username}/changes")
+  public ResponseEntity<TodoChanges> getChanges(
+    @PathVariable("username") String username,
+    @RequestParam(value = "since", defaultValue = "0") long since
+  ) throws UserNotFoundException {
+    TodoChanges changes = todoService.getChanges(username, since);
+
+    return ResponseEntity
+      .ok()
+      .eTag(String.valueOf(changes.getVersion()))
+      .body(changes);
+  }
+
+  /**
+   * Opens an event stream of the user's todo changes. The first event is
+   * the changes since {@code Last-Event-ID}, or the whole list without it;
+   * after that every create, update and delete is pushed as it commits.
+   * Event ids are list versions, so a reconnecting client resumes where it
+   * left off.
+   */
+  @GetMapping(
+    path = "/{username}/events",
+    produces = MediaType.TEXT_EVENT_STREAM_VALUE
+  )
+  public SseEmitter subscribe(
+    @PathVariable("username") String username,
+    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+  ) throws UserNotFoundException, EventSubscriptionLimitException {
+    return todoService.subscribe(username, lastEventId);
+  }
+
+  @GetMapping("/{username}/page")
+  public ResponseEntity<TodoPage> getTodoPage(
+    @PathVariable("username") String username,
+    @RequestParam(value = "cursor", required = false) Long cursor,
+    @RequestParam(
+      value = "size",
+      defaultValue = "" + TodoConstant.DEFAULT_PAGE_SIZE
+    ) int size
+  ) throws UserNotFoundException {
+    TodoPage page = todoService.getTodos(username, cursor, size);
+
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  @GetMapping("/{username}/due/overdue")
+  public ResponseEntity<TodoDuePage> getOverdueTodos(
+    @PathVariable("username") String username,
+    @RequestParam(value = "afterDueDate", required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) Date afterDueDate,
+    @RequestParam(value = "afterId", required = false) Long afterId,
+    @RequestParam(
+      value = "size",
+      defaultValue = "" + TodoConstant.DEFAULT_PAGE_SIZE
+    ) int size
+  ) throws UserNotFoundException {
+    TodoDuePage page = todoService.getOverdueTodos(
+      username,
+      afterDueDate,
+      afterId,
+      size
+    );
+
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  @GetMapping("/{username}/due/today")
+  public ResponseEntity<TodoDuePage> getTodosDueToday(
+    @PathVariable("username") String username,
+    @RequestParam(value = "zone", required = false) ZoneId zone,
+    @RequestParam(value = "afterDueDate", required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) Date afterDueDate,
+    @RequestParam(value = "afterId", required = false) Long afterId,
+    @RequestParam(
+      value = "size",
+      defaultValue = "" + TodoConstant.DEFAULT_PAGE_SIZE
+    ) int size
+  ) throws UserNotFoundException {
+    TodoDuePage page = todoService.getTodosDueToday(
+      username,
+      zone == null ? ZoneId.systemDefault() : zone,
+      afterDueDate,
+      afterId,
+      size
+    );
+
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  @GetMapping("/{username}/due")
+  public ResponseEntity<TodoDuePage> getTodosDueBetween(
+    @PathVariable("username") String username,
+    @RequestParam("from") @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) Date from,
+    @RequestParam("to") @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) Date to,
+    @RequestParam(value = "afterDueDate", required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) Date afterDueDate,
+    @RequestParam(value = "afterId", required = false) Long afterId,
+    @RequestParam(
+      value = "size",
+      defaultValue = "" + TodoConstant.DEFAULT_PAGE_SIZE
+    ) int size
+  ) throws UserNotFoundException {
+    TodoDuePage page = todoService.getTodosDueBetween(
+      username,
+      from,
+      to,
+      afterDueDate,
+      afterId,
+      size
+    );
+
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  @GetMapping("/{username}/search")
+  public ResponseEntity<List<Todo>> searchTodos(
+    @PathVariable("username") String username,
+    @RequestParam("q") String query,
+    @RequestParam(
+      value = "limit",
+      defaultValue = "" + TodoConstant.DEFAULT_SEARCH_LIMIT
+    ) int limit
+  ) throws UserNotFoundException {
+    List<Todo> todos = todoService.searchTodos(username, query, limit);
+
+    return new ResponseEntity<>(todos, HttpStatus.OK);
+  }
+
+  @GetMapping("/{username}/search/suggest")
+  public ResponseEntity<List<String>> suggestTerms(
+    @PathVariable("username") String username,
+    @RequestParam("prefix") String prefix,
+    @RequestParam(
+      value = "limit",
+      defaultValue = "" + TodoConstant.DEFAULT_SUGGESTION_LIMIT
+    ) int limit
+  ) throws UserNotFoundException {
+    List<String> terms = todoService.suggestTerms(username, prefix, limit);
+
+    return new ResponseEntity<>(terms, HttpStatus.OK);
+  }
+
+  @GetMapping(
+    path = "/{username}/stream",
+    produces = TodoConstant.APPLICATION_NDJSON_VALUE
+  )
+  public ResponseEntity<StreamingResponseBody> streamTodos(
+    @PathVariable("username") String username
+  ) throws UserNotFoundException {
+    todoService.validateUsername(username);
+
+    StreamingResponseBody body = outputStream -> {
+      JsonGenerator generator = objectMapper
+        .getFactory()
+        .createGenerator(outputStream);
+      generator.setRootValueSeparator(null);
+      todoService.streamTodos(
+        username,
+        todo -> {
+          try {
+            generator.writeObject(todo);
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      );
+      generator.flush();
+    };
+
+    return new ResponseEntity<>(body, HttpStatus.OK);
   }
 
   @PostMapping("/add")
@@ -45,19 +258,121 @@ public class TodoResource extends ExceptionHandling {
     return new ResponseEntity<>(createTodo, HttpStatus.CREATED);
   }
 
+  @PostMapping("/batch/add")
+  public ResponseEntity<List<BatchItemResult>> addTodos(
+    @RequestBody List<Todo> todos
+  ) throws BatchTooLargeException {
+    List<BatchItemResult> results = todoService.addTodos(todos);
+
+    return new ResponseEntity<>(results, HttpStatus.OK);
+  }
+
+  @PutMapping("/batch/update")
+  public ResponseEntity<List<BatchItemResult>> updateTodos(
+    @RequestBody List<Todo> todos
+  ) throws BatchTooLargeException {
+    List<BatchItemResult> results = todoService.updateTodos(todos);
+
+    return new ResponseEntity<>(results, HttpStatus.OK);
+  }
+
+  @PutMapping("/batch/complete")
+  public ResponseEntity<List<BatchItemResult>> completeTodos(
+    @RequestBody List<Long> ids
+  ) throws BatchTooLargeException {
+    List<BatchItemResult> results = todoService.completeTodos(ids);
+
+    return new ResponseEntity<>(results, HttpStatus.OK);
+  }
+
+  @PostMapping("/batch/delete")
+  public ResponseEntity<List<BatchItemResult>> deleteTodos(
+    @RequestBody List<Long> ids
+  ) throws BatchTooLargeException {
+    List<BatchItemResult> results = todoService.deleteTodos(ids);
+
+    return new ResponseEntity<>(results, HttpStatus.OK);
+  }
+
+  /**
+   * Replaces a todo. With an {@code If-Match} of the version last read the
+   * update only applies if nobody changed the todo since, and fails with
+   * 412 otherwise.
+   */
   @PutMapping("/update")
-  public ResponseEntity<Todo> updateTodo(@RequestBody Todo todo)
-    throws TodoNotFoundException {
-    Todo updateTodo = todoService.updateTodo(todo);
+  public ResponseEntity<Todo> updateTodo(
+    @RequestBody Todo todo,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) throws TodoNotFoundException, TodoVersionConflictException {
+    Todo updateTodo = todoService.updateTodo(todo, expectedVersion(ifMatch));
+
+    return ResponseEntity
+      .ok()
+      .eTag(String.valueOf(updateTodo.getVersion()))
+      .body(updateTodo);
+  }
+
+  /** Changes only the fields sent, e.g. {@code {"done": true}}. */
+  @PatchMapping("/{username}/{id}")
+  public ResponseEntity<Todo> patchTodo(
+    @PathVariable("username") String username,
+    @PathVariable("id") Long id,
+    @RequestBody TodoPatch patch,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) throws TodoNotFoundException, TodoVersionConflictException {
+    Todo patchedTodo = todoService.patchTodo(
+      username,
+      id,
+      patch,
+      expectedVersion(ifMatch)
+    );
 
-    return new ResponseEntity<>(updateTodo, HttpStatus.OK);
+    return ResponseEntity
+      .ok()
+      .eTag(String.valueOf(patchedTodo.getVersion()))
+      .body(patchedTodo);
   }
 
+  /**
+   * Deletes by id alone, without a change record for the owner's list;
+   * {@code DELETE /{username}/{id}} is the delete clients can sync.
+   */
   @DeleteMapping("/{id}")
-  public ResponseEntity<Todo> deleteTodo(@PathVariable("id") Long id)
+  public ResponseEntity<Void> deleteTodo(@PathVariable("id") Long id)
     throws TodoNotFoundException {
-    Todo deletedTodo = todoService.deleteTodo(id);
+    todoService.deleteTodo(id);
+
+    return ResponseEntity.noContent().build();
+  }
+
+  @DeleteMapping("/{username}/{id}")
+  public ResponseEntity<Void> deleteTodo(
+    @PathVariable("username") String username,
+    @PathVariable("id") Long id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) throws TodoNotFoundException, TodoVersionConflictException {
+    todoService.deleteTodo(username, id, expectedVersion(ifMatch));
+
+    return ResponseEntity.noContent().build();
+  }
 
-    return new ResponseEntity<>(deletedTodo, HttpStatus.OK);
+  /**
+   * The version an {@code If-Match} header asks for; none or {@code *}
+   * accepts any. A value that is no version can never match.
+   */
+  private static Long expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String version = ifMatch.trim();
+    if (version.startsWith("W/")) {
+      version = version.substring(2);
+    }
+    version = version.replace("\"", "");
+    try {
+      return Long.parseLong(version);
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
   }
 }
@@ -1,27 +1,32 @@
 package com.todo.taskManager.resource;
 
-import com.todo.taskManager.constant.FileConstant;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.todo.taskManager.constant.SecurityConstant;
 import com.todo.taskManager.constant.UserImplConstant;
+import com.todo.taskManager.domain.CacheStatistics;
 import com.todo.taskManager.domain.HttpResponse;
+import com.todo.taskManager.domain.ProfileImage;
 import com.todo.taskManager.domain.User;
 import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.domain.VerifiedToken;
 import com.todo.taskManager.exception.domain.EmailExistException;
 import com.todo.taskManager.exception.domain.EmailNotFoundException;
 import com.todo.taskManager.exception.domain.ExceptionHandling;
 import com.todo.taskManager.exception.domain.NotAnImageFileException;
 import com.todo.taskManager.exception.domain.UsernameExistException;
+import com.todo.taskManager.service.AvatarService;
+import com.todo.taskManager.service.ProfileImageService;
+import com.todo.taskManager.service.TokenRevocationService;
+import com.todo.taskManager.service.UserLookupCache;
 import com.todo.taskManager.service.UserService;
 import com.todo.taskManager.utility.JWTTokenProvider;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.List;
 import javax.mail.MessagingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -35,6 +40,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -47,16 +53,28 @@ public class UserResource extends ExceptionHandling {
   private UserService userService;
   private AuthenticationManager authenticationManager;
   private JWTTokenProvider jwtTokenProvider;
+  private UserLookupCache userLookupCache;
+  private ProfileImageService profileImageService;
+  private AvatarService avatarService;
+  private TokenRevocationService tokenRevocationService;
 
   @Autowired
   public UserResource(
     UserService userService,
     AuthenticationManager authenticationManager,
-    JWTTokenProvider jwtTokenProvider
+    JWTTokenProvider jwtTokenProvider,
+    UserLookupCache userLookupCache,
+    ProfileImageService profileImageService,
+    AvatarService avatarService,
+    TokenRevocationService tokenRevocationService
   ) {
     this.userService = userService;
     this.authenticationManager = authenticationManager;
     this.jwtTokenProvider = jwtTokenProvider;
+    this.userLookupCache = userLookupCache;
+    this.profileImageService = profileImageService;
+    this.avatarService = avatarService;
+    this.tokenRevocationService = tokenRevocationService;
   }
 
   @PostMapping("/login")
@@ -69,6 +87,55 @@ public class UserResource extends ExceptionHandling {
     return new ResponseEntity<>(loginUser, jwtHeader, HttpStatus.OK);
   }
 
+  @PostMapping("/token/refresh")
+  public ResponseEntity<Void> refreshToken(
+    @RequestHeader(SecurityConstant.REFRESH_TOKEN_HEADER) String refreshToken
+  ) {
+    DecodedJWT decodedJWT = jwtTokenProvider.verifyRefreshToken(refreshToken);
+    User user = userService.findUserByUsername(decodedJWT.getSubject());
+    if (user == null || !user.isActive() || !user.isNotLocked()) {
+      throw new JWTVerificationException(SecurityConstant.TOKEN_REVOKED);
+    }
+    // refresh tokens are single use; only the request that revokes it wins
+    if (
+      !tokenRevocationService.revokeToken(
+        decodedJWT.getId(),
+        decodedJWT.getExpiresAt().getTime()
+      )
+    ) {
+      throw new JWTVerificationException(SecurityConstant.TOKEN_REVOKED);
+    }
+    return new ResponseEntity<>(
+      getJwtHeader(new UserPrincipal(user)),
+      HttpStatus.OK
+    );
+  }
+
+  @PostMapping("/logout")
+  public ResponseEntity<HttpResponse> logout(
+    @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+    @RequestHeader(
+      value = SecurityConstant.REFRESH_TOKEN_HEADER,
+      required = false
+    ) String refreshToken
+  ) {
+    VerifiedToken accessToken = jwtTokenProvider.verifyToken(
+      authorization.substring(SecurityConstant.TOKEN_PREFIX.length())
+    );
+    tokenRevocationService.revokeToken(
+      accessToken.getJti(),
+      accessToken.getExpiresAt().getTime()
+    );
+    if (refreshToken != null) {
+      DecodedJWT decodedJWT = jwtTokenProvider.verifyRefreshToken(refreshToken);
+      tokenRevocationService.revokeToken(
+        decodedJWT.getId(),
+        decodedJWT.getExpiresAt().getTime()
+      );
+    }
+    return response(HttpStatus.OK, UserImplConstant.LOGGED_OUT);
+  }
+
   @PostMapping("/add")
   public ResponseEntity<User> addNewUser(
     @RequestParam("firstName") String firstName,
@@ -143,6 +210,15 @@ public class UserResource extends ExceptionHandling {
     return new ResponseEntity<>(users, HttpStatus.OK);
   }
 
+  @GetMapping("/cache/statistics")
+  @PreAuthorize("hasAnyAuthority('user:delete')")
+  public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+    return new ResponseEntity<>(
+      userLookupCache.getStatistics(),
+      HttpStatus.OK
+    );
+  }
+
   @GetMapping("/resetPassword/{email}")
   public ResponseEntity<HttpResponse> resetPassword(
     @PathVariable("email") String email
@@ -181,36 +257,36 @@ public class UserResource extends ExceptionHandling {
     path = "/image/{username}/{fileName}",
     produces = MimeTypeUtils.IMAGE_JPEG_VALUE
   )
-  public byte[] getProfileImage(
+  public ResponseEntity<Resource> getProfileImage(
     @PathVariable("username") String username,
-    @PathVariable("fileName") String fileName
+    @PathVariable("fileName") String fileName,
+    @RequestParam(value = "size", required = false) Integer size
   ) throws IOException {
-    return Files.readAllBytes(
-      Paths.get(
-        FileConstant.USER_FOLDER +
-        username +
-        FileConstant.FORWARD_SLASH +
-        fileName
-      )
-    );
+    // the ETag lets MVC answer conditional GETs with 304 and Range
+    // requests with 206 straight from the resource
+    ProfileImage image = profileImageService.load(username, fileName, size);
+    return ResponseEntity
+      .ok()
+      .eTag(image.getETag())
+      .lastModified(image.getLastModified())
+      .cacheControl(CacheControl.noCache())
+      .body(image.getResource());
   }
 
   @GetMapping(
     path = "/image/profile/{username}",
-    produces = MimeTypeUtils.IMAGE_JPEG_VALUE
+    produces = MimeTypeUtils.IMAGE_PNG_VALUE
   )
-  public byte[] getTempProfileImage(@PathVariable("username") String username)
-    throws IOException {
-    URL url = new URL(FileConstant.TEMP_PROFILE_IMAGE_BASE_URL + username);
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-    try (InputStream inputStream = url.openStream()) {
-      int bytesRead;
-      byte[] chunk = new byte[1024];
-      while ((bytesRead = inputStream.read(chunk)) > 0) {
-        byteArrayOutputStream.write(chunk, 0, bytesRead);
-      }
-    }
-    return byteArrayOutputStream.toByteArray();
+  public ResponseEntity<Resource> getTempProfileImage(
+    @PathVariable("username") String username
+  ) throws IOException {
+    ProfileImage avatar = avatarService.getAvatar(username);
+    return ResponseEntity
+      .ok()
+      .eTag(avatar.getETag())
+      .lastModified(avatar.getLastModified())
+      .cacheControl(CacheControl.noCache())
+      .body(avatar.getResource());
   }
 
   private ResponseEntity<HttpResponse> response(
@@ -244,6 +320,10 @@ public class UserResource extends ExceptionHandling {
       SecurityConstant.JWT_TOKEN_HEADER,
       jwtTokenProvider.generateJwtToken(userPrincipal)
     );
+    headers.add(
+      SecurityConstant.REFRESH_TOKEN_HEADER,
+      jwtTokenProvider.generateRefreshToken(userPrincipal)
+    );
     return headers;
   }
 
@@ -0,0 +1,127 @@
+package com.todo.taskManager.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.todo.taskManager.constant.FileConstant;
+import com.todo.taskManager.domain.ProfileImage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutionException;
+import javax.imageio.ImageIO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Draws a symmetric identicon from the SHA-256 of the username, so no
+ * request ever leaves the host. Avatars are only kept in a bounded
+ * in-memory cache: the route is public and takes any username, and
+ * rendering one again after eviction costs less than a disk write.
+ */
+@Service
+public class AvatarService {
+
+  private static final String AVATARS = "avatars";
+  private static final Color BACKGROUND = new Color(240, 240, 240);
+  // the same on every node so ETags agree; move forward when render changes
+  private static final long RENDERED_AT = 1_792_195_200_000L;
+
+  private final Cache<String, ProfileImage> avatars;
+
+  @Autowired
+  public AvatarService(
+    @Value("${user.avatar.cache.maximum-size:10000}") long maximumSize,
+    MeterRegistry meterRegistry
+  ) {
+    this(maximumSize);
+    GuavaCacheMetrics.monitor(meterRegistry, avatars, AVATARS);
+  }
+
+  public AvatarService(long maximumSize) {
+    this.avatars =
+      CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  public ProfileImage getAvatar(String username) {
+    try {
+      return avatars.get(username, () -> create(username));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static ProfileImage create(String username) {
+    byte[] bytes = render(sha256(username));
+    return new ProfileImage(
+      new ByteArrayResource(bytes),
+      RENDERED_AT,
+      bytes.length
+    );
+  }
+
+  static byte[] render(byte[] hash) {
+    int grid = FileConstant.AVATAR_GRID;
+    int cell = FileConstant.AVATAR_SIZE / (grid + 1);
+    int margin = (FileConstant.AVATAR_SIZE - cell * grid) / 2;
+    BufferedImage image = new BufferedImage(
+      FileConstant.AVATAR_SIZE,
+      FileConstant.AVATAR_SIZE,
+      BufferedImage.TYPE_INT_RGB
+    );
+    Graphics2D graphics = image.createGraphics();
+    try {
+      graphics.setColor(BACKGROUND);
+      graphics.fillRect(0, 0, FileConstant.AVATAR_SIZE, FileConstant.AVATAR_SIZE);
+      graphics.setColor(
+        new Color(hash[0] & 0xFF, hash[1] & 0xFF, hash[2] & 0xFF).darker()
+      );
+
+      // fill the left half plus the middle column and mirror it
+      int half = (grid + 1) / 2;
+      for (int row = 0; row < grid; row++) {
+        for (int column = 0; column < half; column++) {
+          if ((hash[3 + row * half + column] & 1) == 0) {
+            continue;
+          }
+          int y = margin + row * cell;
+          graphics.fillRect(margin + column * cell, y, cell, cell);
+          graphics.fillRect(margin + (grid - 1 - column) * cell, y, cell, cell);
+        }
+      }
+    } finally {
+      graphics.dispose();
+    }
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      ImageIO.write(image, FileConstant.PNG_EXTENSION, output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return output.toByteArray();
+  }
+
+  private static byte[] sha256(String username) {
+    try {
+      return MessageDigest
+        .getInstance("SHA-256")
+        .digest(username.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
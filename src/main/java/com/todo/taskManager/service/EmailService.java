@@ -1,39 +1,144 @@
 package com.todo.taskManager.service;
 
-import com.sun.mail.smtp.SMTPTransport;
 import com.todo.taskManager.constant.EmailConstant;
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.utility.MailDeliveryPipeline;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.Session;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
+@Timed(MetricConstant.EMAIL_SERVICE)
 public class EmailService {
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${email.smtp.protocol:" + EmailConstant.SIMPLE_MAIL_TRANSFER_PROTOCOL + "}")
+  private String protocol;
+
+  @Value("${email.smtp.host:" + EmailConstant.GMAIL_SMTP_SERVER + "}")
+  private String host;
+
+  @Value("${email.smtp.port:" + EmailConstant.DEFAULT_PORT + "}")
+  private int port;
+
+  @Value("${email.smtp.username:" + EmailConstant.USERNAME + "}")
+  private String username;
+
+  @Value("${email.smtp.password:" + EmailConstant.PASSWORD + "}")
+  private String password;
+
+  @Value("${email.smtp.auth:true}")
+  private boolean auth;
+
+  @Value("${email.smtp.starttls:true}")
+  private boolean starttls;
+
+  @Value("${email.delivery.workers:2}")
+  private int workers;
+
+  @Value("${email.delivery.queue-capacity:1000}")
+  private int queueCapacity;
+
+  @Value("${email.delivery.batch-size:20}")
+  private int batchSize;
+
+  @Value("${email.delivery.max-attempts:5}")
+  private int maxAttempts;
+
+  @Value("${email.delivery.initial-backoff-ms:1000}")
+  private long initialBackoffMillis;
+
+  @Value("${email.delivery.idle-timeout-ms:30000}")
+  private long idleTimeoutMillis;
+
+  @Value("${email.delivery.shutdown-timeout-ms:10000}")
+  private long shutdownTimeoutMillis;
+
+  private Session session;
+  private MailDeliveryPipeline deliveryPipeline;
+
+  @PostConstruct
+  public void init() {
+    session = getEmailSession();
+    deliveryPipeline =
+      new MailDeliveryPipeline(
+        session,
+        protocol,
+        host,
+        port,
+        auth ? username : null,
+        auth ? password : null,
+        workers,
+        queueCapacity,
+        batchSize,
+        maxAttempts,
+        initialBackoffMillis,
+        idleTimeoutMillis,
+        // platform threads even in virtual thread mode: SMTPTransport
+        // writes under synchronized and would pin a carrier per send
+        null,
+        meterRegistry
+      );
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    deliveryPipeline.shutdown(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
   public void sendNewPasswordEmail(
     String firstName,
     String password,
     String email
   ) throws MessagingException {
     Message message = createEmail(firstName, password, email);
-    SMTPTransport smtpTransport = (SMTPTransport) getEmailSession()
-      .getTransport(EmailConstant.SIMPLE_MAIL_TRANSFER_PROTOCOL);
-    smtpTransport.connect(
-      EmailConstant.GMAIL_SMTP_SERVER,
-      EmailConstant.USERNAME,
-      EmailConstant.PASSWORD
-    );
-    smtpTransport.sendMessage(message, message.getAllRecipients());
-    smtpTransport.close();
+    // a full queue fails here, inside the caller's transaction, rather than
+    // after it committed a password nobody will receive
+    MailDeliveryPipeline.Reservation reservation = deliveryPipeline.reserve();
+
+    // hold the message back until the surrounding transaction commits so a
+    // rolled back registration never sends a password
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+              reservation.submit(message);
+            } else {
+              reservation.cancel();
+            }
+          }
+        }
+      );
+    } else {
+      reservation.submit(message);
+    }
+  }
+
+  public MailDeliveryPipeline getDeliveryPipeline() {
+    return deliveryPipeline;
   }
 
   private Message createEmail(String firstName, String password, String email)
     throws MessagingException {
-    Message message = new MimeMessage(getEmailSession());
+    Message message = new MimeMessage(session);
     message.setFrom(new InternetAddress(EmailConstant.FROM_EMAIL));
     message.setRecipients(
       Message.RecipientType.TO,
@@ -57,12 +162,24 @@ public class EmailService {
   }
 
   private Session getEmailSession() {
-    Properties properties = System.getProperties();
-    properties.put(EmailConstant.SMTP_HOST, EmailConstant.GMAIL_SMTP_SERVER);
-    properties.put(EmailConstant.SMTP_AUTH, true);
-    properties.put(EmailConstant.SMTP_PORT, EmailConstant.DEFAULT_PORT);
-    properties.put(EmailConstant.SMTP_STARTTLS_ENABLE, true);
-    properties.put(EmailConstant.SMTP_STARTTTLS_REQUIRED, true);
+    Properties properties = new Properties();
+    properties.put(EmailConstant.SMTP_HOST, host);
+    properties.put(EmailConstant.SMTP_AUTH, auth);
+    properties.put(EmailConstant.SMTP_PORT, port);
+    properties.put(EmailConstant.SMTP_STARTTLS_ENABLE, starttls);
+    properties.put(EmailConstant.SMTP_STARTTTLS_REQUIRED, starttls);
+    properties.put(
+      String.format(EmailConstant.CONNECTION_TIMEOUT, protocol),
+      EmailConstant.SOCKET_TIMEOUT_MILLIS
+    );
+    properties.put(
+      String.format(EmailConstant.TIMEOUT, protocol),
+      EmailConstant.SOCKET_TIMEOUT_MILLIS
+    );
+    properties.put(
+      String.format(EmailConstant.WRITE_TIMEOUT, protocol),
+      EmailConstant.SOCKET_TIMEOUT_MILLIS
+    );
     return Session.getInstance(properties, null);
   }
 }
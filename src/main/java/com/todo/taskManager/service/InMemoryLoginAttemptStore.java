@@ -0,0 +1,104 @@
+package com.todo.taskManager.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.todo.taskManager.constant.MetricConstant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last {@code maxAttempts} failure times of each username in a
+ * small ring of epoch seconds, so a key costs a few dozen bytes and the
+ * store can hold millions of usernames. Keys expire once their newest
+ * failure leaves the window.
+ */
+public class InMemoryLoginAttemptStore implements LoginAttemptStore {
+
+  private final int maxAttempts;
+  private final long windowMillis;
+  private final Cache<String, AttemptWindow> attempts;
+
+  public InMemoryLoginAttemptStore(
+    int maxAttempts,
+    long windowMillis,
+    long maximumKeys,
+    MeterRegistry meterRegistry
+  ) {
+    this.maxAttempts = maxAttempts;
+    this.windowMillis = windowMillis;
+    this.attempts =
+      CacheBuilder
+        .newBuilder()
+        .expireAfterAccess(windowMillis, TimeUnit.MILLISECONDS)
+        .maximumSize(maximumKeys)
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(
+      meterRegistry,
+      attempts,
+      MetricConstant.LOGIN_ATTEMPT_CACHE
+    );
+  }
+
+  @Override
+  public int recordFailure(String username, long nowMillis) {
+    try {
+      return attempts
+        .get(username, () -> new AttemptWindow(maxAttempts))
+        .record(nowMillis, windowMillis);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  @Override
+  public int countFailures(String username, long nowMillis) {
+    AttemptWindow window = attempts.getIfPresent(username);
+    return window == null ? 0 : window.count(nowMillis, windowMillis);
+  }
+
+  @Override
+  public void clear(String username) {
+    attempts.invalidate(username);
+  }
+
+  @Override
+  public void purgeExpired(long nowMillis) {
+    attempts.cleanUp();
+  }
+
+  public long size() {
+    return attempts.size();
+  }
+
+  private static class AttemptWindow {
+
+    private final int[] failureSeconds;
+    private int next;
+    private int recorded;
+
+    private AttemptWindow(int capacity) {
+      this.failureSeconds = new int[capacity];
+    }
+
+    private synchronized int record(long nowMillis, long windowMillis) {
+      failureSeconds[next] = (int) TimeUnit.MILLISECONDS.toSeconds(nowMillis);
+      next = (next + 1) % failureSeconds.length;
+      recorded = Math.min(recorded + 1, failureSeconds.length);
+      return count(nowMillis, windowMillis);
+    }
+
+    private synchronized int count(long nowMillis, long windowMillis) {
+      long oldest = TimeUnit.MILLISECONDS.toSeconds(nowMillis - windowMillis);
+      int count = 0;
+      for (int i = 0; i < recorded; i++) {
+        if (Integer.toUnsignedLong(failureSeconds[i]) > oldest) {
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.todo.taskManager.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Keeps failed logins in the shared {@code login_attempt} table so every
+ * node sees the same counts and a lockout holds across the cluster. Each
+ * failure is a single insert, which is atomic without any read-modify-write.
+ */
+public class JdbcLoginAttemptStore implements LoginAttemptStore {
+
+  private static final String INSERT_FAILURE =
+    "insert into login_attempt (username, attempted_at) values (?, ?)";
+  private static final String COUNT_FAILURES =
+    "select count(*) from login_attempt where username = ? and attempted_at > ?";
+  private static final String DELETE_USER =
+    "delete from login_attempt where username = ?";
+  private static final String DELETE_EXPIRED =
+    "delete from login_attempt where attempted_at <= ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final long windowMillis;
+
+  public JdbcLoginAttemptStore(JdbcTemplate jdbcTemplate, long windowMillis) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.windowMillis = windowMillis;
+  }
+
+  @Override
+  public int recordFailure(String username, long nowMillis) {
+    jdbcTemplate.update(INSERT_FAILURE, username, nowMillis);
+    return countFailures(username, nowMillis);
+  }
+
+  @Override
+  public int countFailures(String username, long nowMillis) {
+    Integer count = jdbcTemplate.queryForObject(
+      COUNT_FAILURES,
+      Integer.class,
+      username,
+      nowMillis - windowMillis
+    );
+    return count == null ? 0 : count;
+  }
+
+  @Override
+  public void clear(String username) {
+    jdbcTemplate.update(DELETE_USER, username);
+  }
+
+  @Override
+  public void purgeExpired(long nowMillis) {
+    jdbcTemplate.update(DELETE_EXPIRED, nowMillis - windowMillis);
+  }
+}
@@ -0,0 +1,101 @@
+package com.todo.taskManager.service;
+
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class LastLoginRecorder {
+
+  private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+  private final Map<String, Date> pendingLogins = new ConcurrentHashMap<>();
+  private UserRepository userRepository;
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  public LastLoginRecorder(
+    UserRepository userRepository,
+    PlatformTransactionManager transactionManager,
+    MeterRegistry meterRegistry
+  ) {
+    this.userRepository = userRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    meterRegistry.gaugeMapSize(
+      MetricConstant.LAST_LOGIN_PENDING,
+      Collections.emptyList(),
+      pendingLogins
+    );
+  }
+
+  public void recordLogin(String username, Date loginDate) {
+    pendingLogins.merge(
+      username,
+      loginDate,
+      (current, next) -> next.after(current) ? next : current
+    );
+  }
+
+  public int getPendingCount() {
+    return pendingLogins.size();
+  }
+
+  /**
+   * Writes the coalesced login dates. Cached user snapshots are not
+   * evicted for this, which during a login burst would empty the cache;
+   * their login dates may lag by up to the cache's TTL instead.
+   */
+  @Scheduled(fixedDelayString = "${user.last-login.flush-interval-ms:5000}")
+  public void flush() {
+    if (pendingLogins.isEmpty()) {
+      return;
+    }
+
+    List<Map.Entry<String, Date>> batch = new ArrayList<>();
+    for (String username : pendingLogins.keySet()) {
+      Date loginDate = pendingLogins.remove(username);
+      if (loginDate != null) {
+        batch.add(Map.entry(username, loginDate));
+      }
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(
+        status ->
+          batch.forEach(
+            entry ->
+              userRepository.updateLastLoginDate(entry.getKey(), entry.getValue())
+          )
+      );
+    } catch (RuntimeException e) {
+      LOGGER.error("Could not flush last login dates: " + e.getMessage());
+      batch.forEach(
+        entry ->
+          pendingLogins.merge(
+            entry.getKey(),
+            entry.getValue(),
+            (current, failed) -> current
+          )
+      );
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+}
@@ -1,56 +1,42 @@
 package com.todo.taskManager.service;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
 public class LoginAttemptService {
 
-  private static final int MAXIMUM_NUMBER_OF_ATTEMPS = 5;
-  private static final int ATTEMPT_INCREMENT = 1;
-  private LoadingCache<String, Integer> loginAttempCache;
-
-  public LoginAttemptService() {
-    super();
-    loginAttempCache =
-      CacheBuilder
-        .newBuilder()
-        .expireAfterWrite(15, TimeUnit.MINUTES)
-        .maximumSize(100)
-        .build(
-          new CacheLoader<String, Integer>() {
-            public Integer load(String key) {
-              return 0;
-            }
-          }
-        );
+  private LoginAttemptStore loginAttemptStore;
+  private int maximumNumberOfAttempts;
+
+  @Autowired
+  public LoginAttemptService(
+    LoginAttemptStore loginAttemptStore,
+    @Value("${login-attempt.max-attempts:5}") int maximumNumberOfAttempts
+  ) {
+    this.loginAttemptStore = loginAttemptStore;
+    this.maximumNumberOfAttempts = maximumNumberOfAttempts;
   }
 
   public void evictUserFromLoginAttempCache(String username) {
-    loginAttempCache.invalidate(username);
+    loginAttemptStore.clear(username);
   }
 
   public void addUserToLoginAttempCache(String username) {
-    int attempts = 0;
-
-    try {
-      attempts = ATTEMPT_INCREMENT + loginAttempCache.get(username);
-    } catch (ExecutionException e) {
-      e.printStackTrace();
-    }
-    loginAttempCache.put(username, attempts);
+    loginAttemptStore.recordFailure(username, System.currentTimeMillis());
   }
 
   public boolean hasExceededMaxAttempts(String username) {
-    try {
-      return loginAttempCache.get(username) >= MAXIMUM_NUMBER_OF_ATTEMPS;
-    } catch (ExecutionException e) {
-      e.printStackTrace();
-      return false;
-    }
+    return (
+      loginAttemptStore.countFailures(username, System.currentTimeMillis()) >=
+      maximumNumberOfAttempts
+    );
+  }
+
+  @Scheduled(fixedDelayString = "${login-attempt.purge-interval-ms:60000}")
+  public void purgeExpiredAttempts() {
+    loginAttemptStore.purgeExpired(System.currentTimeMillis());
   }
 }
@@ -0,0 +1,21 @@
+package com.todo.taskManager.service;
+
+/**
+ * Counts failed logins per username over a sliding window. Implementations
+ * must make {@link #recordFailure} atomic so concurrent failures for the
+ * same username are never lost.
+ */
+public interface LoginAttemptStore {
+  /**
+   * Records a failed login and returns the number of failures inside the
+   * window ending at {@code nowMillis}, including this one.
+   */
+  int recordFailure(String username, long nowMillis);
+
+  int countFailures(String username, long nowMillis);
+
+  void clear(String username);
+
+  /** Drops failures that have slid out of the window. */
+  void purgeExpired(long nowMillis);
+}
@@ -0,0 +1,257 @@
+package com.todo.taskManager.service;
+
+import com.todo.taskManager.constant.FileConstant;
+import com.todo.taskManager.constant.MetricConstant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns an uploaded profile image into JPEG variants on a bounded worker
+ * pool. The largest variant replaces the uploaded file itself and every
+ * size is also written as {@code <name>-<size>.jpg}. Uploads are never
+ * upscaled. Dimensions are read from the header first: images over
+ * {@code user.image.max-pixels} are not decoded, and large ones are
+ * subsampled while decoding so heap use stays bounded.
+ */
+@Service
+public class ProfileImageProcessor {
+
+  private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+  private final UserFileStorage userFileStorage;
+  private final int[] variantSizes;
+  private final long maxPixels;
+  private final ThreadPoolExecutor workers;
+  private final Timer processingTimer;
+
+  @Autowired
+  public ProfileImageProcessor(
+    UserFileStorage userFileStorage,
+    @Value("${user.image.variants:64,256,512}") int[] variantSizes,
+    @Value("${user.image.processing.workers:2}") int workerCount,
+    @Value("${user.image.processing.queue-capacity:100}") int queueCapacity,
+    @Value("${user.image.max-pixels:40000000}") long maxPixels,
+    MeterRegistry meterRegistry
+  ) {
+    this.userFileStorage = userFileStorage;
+    this.variantSizes = variantSizes.clone();
+    Arrays.sort(this.variantSizes);
+    this.maxPixels = maxPixels;
+    BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers =
+      new ThreadPoolExecutor(
+        workerCount,
+        workerCount,
+        0,
+        TimeUnit.MILLISECONDS,
+        queue,
+        runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            FileConstant.IMAGE_PROCESSING_THREAD_NAME +
+            threadCount.incrementAndGet()
+          );
+          thread.setDaemon(true);
+          return thread;
+        }
+      );
+    this.processingTimer = meterRegistry.timer(MetricConstant.IMAGE_PROCESSING);
+    meterRegistry.gauge(MetricConstant.IMAGE_QUEUE_SIZE, queue, BlockingQueue::size);
+  }
+
+  public int[] getVariantSizes() {
+    return variantSizes.clone();
+  }
+
+  public static String variantFileName(String fileName, int size) {
+    int dot = fileName.lastIndexOf(FileConstant.DOT);
+    String baseName = dot < 0 ? fileName : fileName.substring(0, dot);
+    return (
+      baseName +
+      FileConstant.VARIANT_SEPARATOR +
+      size +
+      FileConstant.DOT +
+      FileConstant.JPG_EXTENSION
+    );
+  }
+
+  /**
+   * Queues the stored upload for processing. When the queue is full the
+   * upload is kept as it is and served unprocessed.
+   */
+  public void submit(Path upload) {
+    // variants of the previous image would be served until the new ones
+    // are written, or for good if this one is never processed
+    deleteVariants(upload);
+    try {
+      workers.execute(() -> processingTimer.record(() -> process(upload)));
+    } catch (RejectedExecutionException e) {
+      LOGGER.warn("Image processing queue is full, keeping " + upload);
+    }
+  }
+
+  void process(Path upload) {
+    try {
+      FileTime uploaded = Files.getLastModifiedTime(upload);
+      BufferedImage source = read(upload);
+      if (source == null) {
+        return;
+      }
+      if (!uploaded.equals(Files.getLastModifiedTime(upload))) {
+        // replaced by a newer upload, which is queued behind this one
+        return;
+      }
+      for (int size : variantSizes) {
+        writeJpeg(
+          resize(source, size),
+          upload.resolveSibling(
+            variantFileName(upload.getFileName().toString(), size)
+          )
+        );
+      }
+      writeJpeg(resize(source, variantSizes[variantSizes.length - 1]), upload);
+    } catch (IOException e) {
+      // the user folder is gone when the user was deleted meanwhile
+      LOGGER.error("Could not process image " + upload + ": " + e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdown();
+  }
+
+  private void deleteVariants(Path upload) {
+    for (int size : variantSizes) {
+      Path variant = upload.resolveSibling(
+        variantFileName(upload.getFileName().toString(), size)
+      );
+      try {
+        Files.deleteIfExists(variant);
+      } catch (IOException e) {
+        LOGGER.warn("Could not delete image " + variant + ": " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Decodes the upload no larger than the variants need, or returns null
+   * when it is not an image or has more than {@code maxPixels} pixels.
+   */
+  private BufferedImage read(Path upload) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(upload.toFile())) {
+      Iterator<ImageReader> readers = input == null
+        ? null
+        : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        LOGGER.warn("Could not decode uploaded image " + upload);
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxPixels) {
+          LOGGER.warn(
+            "Uploaded image " + upload + " has " + width + "x" + height +
+            " pixels, more than " + maxPixels
+          );
+          return null;
+        }
+        // keep at least twice the largest variant for a smooth downscale
+        int step = Math.max(
+          1,
+          Math.max(width, height) / (2 * variantSizes[variantSizes.length - 1])
+        );
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static BufferedImage resize(BufferedImage source, int size) {
+    double scale = Math.min(
+      1.0,
+      (double) size / Math.max(source.getWidth(), source.getHeight())
+    );
+    int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+    int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+    BufferedImage target = new BufferedImage(
+      width,
+      height,
+      BufferedImage.TYPE_INT_RGB
+    );
+    Graphics2D graphics = target.createGraphics();
+    try {
+      graphics.setRenderingHint(
+        RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR
+      );
+      // JPEG has no alpha channel, flatten transparency onto white
+      graphics.setColor(Color.WHITE);
+      graphics.fillRect(0, 0, width, height);
+      graphics.drawImage(source, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+    return target;
+  }
+
+  private void writeJpeg(BufferedImage image, Path file) throws IOException {
+    ImageWriter writer = ImageIO
+      .getImageWritersByFormatName(FileConstant.JPG_EXTENSION)
+      .next();
+    ImageWriteParam param = writer.getDefaultWriteParam();
+    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+    param.setCompressionQuality(FileConstant.JPEG_QUALITY);
+
+    Path temporary = Files.createTempFile(file.getParent(), null, null);
+    try (
+      OutputStream output = Files.newOutputStream(temporary);
+      ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)
+    ) {
+      writer.setOutput(imageOutput);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+    userFileStorage.save(temporary, file);
+  }
+}
@@ -0,0 +1,141 @@
+package com.todo.taskManager.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.todo.taskManager.domain.ProfileImage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves stored profile images. Small files are kept in a byte-bounded
+ * LRU and revalidated against the file's size and modification time on
+ * every hit; everything else is streamed from disk as a resource so the
+ * whole file is never loaded onto the heap.
+ */
+@Service
+public class ProfileImageService {
+
+  private static final String HOT_IMAGES = "profileImages";
+
+  private final UserFileStorage userFileStorage;
+  private final int[] variantSizes;
+  private final long maxCachedFileBytes;
+  private final Cache<Path, CachedImage> hotImages;
+
+  @Autowired
+  public ProfileImageService(
+    @Value("${user.image.cache.max-bytes:8388608}") long maxCacheBytes,
+    @Value("${user.image.cache.max-file-bytes:65536}") long maxCachedFileBytes,
+    UserFileStorage userFileStorage,
+    ProfileImageProcessor profileImageProcessor,
+    MeterRegistry meterRegistry
+  ) {
+    this(
+      userFileStorage,
+      profileImageProcessor.getVariantSizes(),
+      maxCacheBytes,
+      maxCachedFileBytes
+    );
+    GuavaCacheMetrics.monitor(meterRegistry, hotImages, HOT_IMAGES);
+  }
+
+  public ProfileImageService(
+    UserFileStorage userFileStorage,
+    int[] variantSizes,
+    long maxCacheBytes,
+    long maxCachedFileBytes
+  ) {
+    this.userFileStorage = userFileStorage;
+    this.variantSizes = variantSizes.clone();
+    Arrays.sort(this.variantSizes);
+    this.maxCachedFileBytes = maxCachedFileBytes;
+    this.hotImages =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxCacheBytes)
+        .<Path, CachedImage>weigher((path, image) -> image.bytes.length)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Serves the smallest processed variant that is at least {@code size}
+   * pixels wide, falling back to the stored image when there is none yet.
+   */
+  public ProfileImage load(String username, String fileName, Integer size)
+    throws IOException {
+    if (size != null) {
+      for (int variantSize : variantSizes) {
+        if (variantSize < size) {
+          continue;
+        }
+        try {
+          return load(
+            username,
+            ProfileImageProcessor.variantFileName(fileName, variantSize)
+          );
+        } catch (NoSuchFileException e) {
+          break;
+        }
+      }
+    }
+    return load(username, fileName);
+  }
+
+  public ProfileImage load(String username, String fileName)
+    throws IOException {
+    Path folder = userFileStorage.getUserFolder(username);
+    Path file = folder.resolve(fileName).normalize();
+    if (!folder.equals(folder.normalize()) || !file.startsWith(folder)) {
+      throw new NoSuchFileException(fileName);
+    }
+
+    BasicFileAttributes attributes = Files.readAttributes(
+      file,
+      BasicFileAttributes.class
+    );
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    long size = attributes.size();
+
+    if (size > maxCachedFileBytes) {
+      return new ProfileImage(new FileSystemResource(file), lastModified, size);
+    }
+
+    CachedImage cached = hotImages.getIfPresent(file);
+    if (
+      cached == null ||
+      cached.lastModified != lastModified ||
+      cached.bytes.length != size
+    ) {
+      cached = new CachedImage(Files.readAllBytes(file), lastModified);
+      hotImages.put(file, cached);
+    }
+    return new ProfileImage(
+      new ByteArrayResource(cached.bytes),
+      cached.lastModified,
+      cached.bytes.length
+    );
+  }
+
+  private static class CachedImage {
+
+    private final byte[] bytes;
+    private final long lastModified;
+
+    private CachedImage(byte[] bytes, long lastModified) {
+      this.bytes = bytes;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -0,0 +1,379 @@
+package com.todo.taskManager.service;
+
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.constant.TodoConstant;
+import com.todo.taskManager.exception.domain.EventSubscriptionLimitException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans todo events out to the SSE connections of their owner. Connections
+ * are async requests, so an idle one costs a socket and a small buffer but
+ * no thread; a few dispatcher threads do all the writing. Each connection
+ * buffers at most {@code todo.events.buffer-size} events, and one that
+ * falls further behind is closed: its client reconnects with
+ * {@code Last-Event-ID} and is brought up to date from the list version.
+ * A write still blocked after {@code todo.events.send-timeout-ms}, e.g. to
+ * a client that stopped reading, closes its connection the same way, so a
+ * few stalled clients cannot hold every dispatcher.
+ */
+@Service
+public class TodoEventBroadcaster {
+
+  private static final Event HEARTBEAT = new Event(0, null, null);
+
+  private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  // highest list version pushed per user, to spot writes made on other nodes
+  private final Map<String, Long> publishedVersions = new ConcurrentHashMap<>();
+  private final AtomicInteger connections = new AtomicInteger();
+  private final ExecutorService dispatchers;
+  private final int bufferSize;
+  private final int maxConnections;
+  private final int maxConnectionsPerUser;
+  private final long timeoutMillis;
+  private final long sendTimeoutNanos;
+  private final Counter evictedCounter;
+
+  @Autowired
+  public TodoEventBroadcaster(
+    @Value("${todo.events.dispatch-threads:4}") int dispatchThreads,
+    @Value("${todo.events.buffer-size:256}") int bufferSize,
+    @Value("${todo.events.max-connections:50000}") int maxConnections,
+    @Value("${todo.events.max-connections-per-user:10}") int maxConnectionsPerUser,
+    @Value("${todo.events.timeout-ms:1800000}") long timeoutMillis,
+    @Value("${todo.events.send-timeout-ms:10000}") long sendTimeoutMillis,
+    MeterRegistry meterRegistry
+  ) {
+    AtomicInteger threadCount = new AtomicInteger();
+    this.dispatchers =
+      Executors.newFixedThreadPool(
+        dispatchThreads,
+        runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            TodoConstant.EVENT_DISPATCH_THREAD_NAME +
+            threadCount.incrementAndGet()
+          );
+          thread.setDaemon(true);
+          return thread;
+        }
+      );
+    this.bufferSize = bufferSize;
+    this.maxConnections = maxConnections;
+    this.maxConnectionsPerUser = maxConnectionsPerUser;
+    this.timeoutMillis = timeoutMillis;
+    this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+    this.evictedCounter = meterRegistry.counter(MetricConstant.TODO_EVENTS_EVICTED);
+    meterRegistry.gauge(
+      MetricConstant.TODO_EVENTS_CONNECTIONS,
+      connections,
+      AtomicInteger::get
+    );
+  }
+
+  /**
+   * Opens a connection that holds back events until {@link #start} hands
+   * it the snapshot they follow, so nothing published in between is lost.
+   */
+  public Subscriber subscribe(String username)
+    throws EventSubscriptionLimitException {
+    if (connections.incrementAndGet() > maxConnections) {
+      connections.decrementAndGet();
+      throw new EventSubscriptionLimitException(
+        TodoConstant.TOO_MANY_EVENT_SUBSCRIPTIONS
+      );
+    }
+    Subscriber subscriber = new Subscriber(username, createEmitter(timeoutMillis));
+    Set<Subscriber> userSubscribers = subscribers.compute(
+      username,
+      (key, current) -> {
+        Set<Subscriber> set = current == null
+          ? new CopyOnWriteArraySet<>()
+          : current;
+        if (set.size() < maxConnectionsPerUser) {
+          set.add(subscriber);
+        }
+        return set;
+      }
+    );
+    if (!userSubscribers.contains(subscriber)) {
+      connections.decrementAndGet();
+      throw new EventSubscriptionLimitException(
+        TodoConstant.TOO_MANY_EVENT_SUBSCRIPTIONS
+      );
+    }
+    subscriber.emitter.onCompletion(() -> remove(subscriber));
+    subscriber.emitter.onTimeout(() -> remove(subscriber));
+    subscriber.emitter.onError(error -> remove(subscriber));
+    return subscriber;
+  }
+
+  /** Sends the snapshot first, then the events newer than its version. */
+  public void start(Subscriber subscriber, long version, String name, Object data) {
+    publishedVersions.merge(subscriber.username, version, Math::max);
+    Event snapshot = new Event(version, name, data);
+    subscriber.snapshot = snapshot;
+    subscriber.events.offerFirst(snapshot);
+    subscriber.started = true;
+    schedule(subscriber);
+  }
+
+  /** Drops a connection that failed before it was started. */
+  public void cancel(Subscriber subscriber) {
+    remove(subscriber);
+  }
+
+  public void publishAfterCommit(
+    String username,
+    long version,
+    String name,
+    Object data
+  ) {
+    if (username == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            publish(username, version, name, data);
+          }
+        }
+      );
+    } else {
+      publish(username, version, name, data);
+    }
+  }
+
+  public void publish(String username, long version, String name, Object data) {
+    Set<Subscriber> userSubscribers = subscribers.get(username);
+    if (userSubscribers == null) {
+      return;
+    }
+    publishedVersions.merge(username, version, Math::max);
+    Event event = new Event(version, name, data);
+    for (Subscriber subscriber : userSubscribers) {
+      offer(subscriber, event);
+    }
+  }
+
+  public boolean hasSubscribers(String username) {
+    Set<Subscriber> userSubscribers = subscribers.get(username);
+    return userSubscribers != null && !userSubscribers.isEmpty();
+  }
+
+  public List<String> getSubscribedUsernames() {
+    return new ArrayList<>(subscribers.keySet());
+  }
+
+  /** Null until an event stream of the user has started on this node. */
+  public Long getPublishedVersion(String username) {
+    return publishedVersions.get(username);
+  }
+
+  /**
+   * Keeps idle connections open through proxies and finds dead ones: a
+   * heartbeat to a closed socket fails and removes the subscriber.
+   */
+  @Scheduled(fixedDelayString = "${todo.events.heartbeat-interval-ms:15000}")
+  public void heartbeat() {
+    for (Set<Subscriber> userSubscribers : subscribers.values()) {
+      for (Subscriber subscriber : userSubscribers) {
+        offer(subscriber, HEARTBEAT);
+      }
+    }
+  }
+
+  /**
+   * Closes connections whose write has been blocked for longer than the
+   * send timeout. Failing the emitter ends the async request, which closes
+   * the socket and so releases the dispatcher stuck writing to it.
+   */
+  @Scheduled(fixedDelayString = "${todo.events.send-check-interval-ms:1000}")
+  public void evictStalledSends() {
+    long now = System.nanoTime();
+    for (Set<Subscriber> userSubscribers : subscribers.values()) {
+      for (Subscriber subscriber : userSubscribers) {
+        long sendStarted = subscriber.sendStarted;
+        if (
+          sendStarted != 0 &&
+          now - sendStarted > sendTimeoutNanos &&
+          subscriber.closed.compareAndSet(false, true)
+        ) {
+          evictedCounter.increment();
+          subscriber.events.clear();
+          subscriber.emitter.completeWithError(
+            new IOException(TodoConstant.EVENT_SEND_TIMED_OUT)
+          );
+          remove(subscriber);
+        }
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    dispatchers.shutdownNow();
+    for (Set<Subscriber> userSubscribers : subscribers.values()) {
+      for (Subscriber subscriber : userSubscribers) {
+        subscriber.emitter.complete();
+      }
+    }
+  }
+
+  SseEmitter createEmitter(long timeoutMillis) {
+    return new SseEmitter(timeoutMillis);
+  }
+
+  private void offer(Subscriber subscriber, Event event) {
+    if (subscriber.closed.get()) {
+      return;
+    }
+    if (
+      subscriber.events.size() >= bufferSize ||
+      !subscriber.events.offerLast(event)
+    ) {
+      evictedCounter.increment();
+      close(subscriber);
+      return;
+    }
+    schedule(subscriber);
+  }
+
+  private void schedule(Subscriber subscriber) {
+    if (subscriber.started && subscriber.scheduled.compareAndSet(false, true)) {
+      dispatchers.execute(() -> drain(subscriber));
+    }
+  }
+
+  private void drain(Subscriber subscriber) {
+    try {
+      Event event;
+      while (!subscriber.closed.get() && (event = subscriber.events.pollFirst()) != null) {
+        send(subscriber, event);
+      }
+    } catch (IOException | IllegalStateException e) {
+      close(subscriber);
+    } finally {
+      subscriber.scheduled.set(false);
+    }
+    if (!subscriber.events.isEmpty()) {
+      schedule(subscriber);
+    }
+  }
+
+  private void send(Subscriber subscriber, Event event) throws IOException {
+    subscriber.sendStarted = System.nanoTime();
+    try {
+      write(subscriber, event);
+    } finally {
+      subscriber.sendStarted = 0;
+    }
+  }
+
+  private void write(Subscriber subscriber, Event event) throws IOException {
+    if (event == HEARTBEAT) {
+      subscriber.emitter.send(SseEmitter.event().comment(TodoConstant.HEARTBEAT_COMMENT));
+      return;
+    }
+    // anything at or below the snapshot version is already in it; later
+    // events all go out, as a batch shares one version and transactions
+    // can commit out of version order
+    if (event != subscriber.snapshot && event.version <= subscriber.snapshot.version) {
+      return;
+    }
+    subscriber.emitter.send(
+      SseEmitter
+        .event()
+        .id(String.valueOf(event.version))
+        .name(event.name)
+        .data(event.data, MediaType.APPLICATION_JSON)
+    );
+  }
+
+  private void close(Subscriber subscriber) {
+    if (subscriber.closed.compareAndSet(false, true)) {
+      subscriber.events.clear();
+      subscriber.emitter.complete();
+      remove(subscriber);
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    subscriber.closed.set(true);
+    subscribers.computeIfPresent(
+      subscriber.username,
+      (username, current) -> {
+        if (current.remove(subscriber)) {
+          connections.decrementAndGet();
+        }
+        if (!current.isEmpty()) {
+          return current;
+        }
+        publishedVersions.remove(username);
+        return null;
+      }
+    );
+  }
+
+  public final class Subscriber {
+
+    private final String username;
+    private final SseEmitter emitter;
+    private final LinkedBlockingDeque<Event> events;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // set before started, which publishes it to the dispatchers
+    private Event snapshot;
+    private volatile boolean started;
+    // System.nanoTime() when the write in progress began, 0 when idle
+    private volatile long sendStarted;
+
+    private Subscriber(String username, SseEmitter emitter) {
+      this.username = username;
+      this.emitter = emitter;
+      // one slot more than the buffer so the snapshot always fits in front
+      this.events = new LinkedBlockingDeque<>(bufferSize + 1);
+    }
+
+    public SseEmitter getEmitter() {
+      return emitter;
+    }
+  }
+
+  private static final class Event {
+
+    private final long version;
+    private final String name;
+    private final Object data;
+
+    private Event(long version, String name, Object data) {
+      this.version = version;
+      this.name = name;
+      this.data = data;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.todo.taskManager.service;
+
+import com.todo.taskManager.constant.TodoConstant;
+import com.todo.taskManager.domain.TodoChanges;
+import com.todo.taskManager.exception.domain.UserNotFoundException;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pushes writes made on other nodes. Local writes are published as they
+ * commit; for the rest, the list versions of users with open event streams
+ * are compared against what was pushed here, and any user found behind is
+ * sent the delta as one changes event.
+ */
+@Service
+public class TodoEventRelay {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    TodoEventRelay.class
+  );
+  private static final int VERSION_QUERY_SIZE = 500;
+
+  private TodoService todoService;
+  private TodoSyncService todoSyncService;
+  private TodoEventBroadcaster todoEventBroadcaster;
+
+  @Autowired
+  public TodoEventRelay(
+    TodoService todoService,
+    TodoSyncService todoSyncService,
+    TodoEventBroadcaster todoEventBroadcaster
+  ) {
+    this.todoService = todoService;
+    this.todoSyncService = todoSyncService;
+    this.todoEventBroadcaster = todoEventBroadcaster;
+  }
+
+  @Scheduled(fixedDelayString = "${todo.events.relay-interval-ms:2000}")
+  public void relayRemoteChanges() {
+    List<String> usernames = todoEventBroadcaster.getSubscribedUsernames();
+    for (int from = 0; from < usernames.size(); from += VERSION_QUERY_SIZE) {
+      List<String> chunk = usernames.subList(
+        from,
+        Math.min(from + VERSION_QUERY_SIZE, usernames.size())
+      );
+      Map<String, Long> versions = todoSyncService.currentVersions(chunk);
+      versions.forEach(this::relay);
+    }
+  }
+
+  private void relay(String username, long version) {
+    Long published = todoEventBroadcaster.getPublishedVersion(username);
+    if (published == null || version <= published) {
+      return;
+    }
+    try {
+      TodoChanges changes = todoService.getChanges(username, published);
+      todoEventBroadcaster.publish(
+        username,
+        changes.getVersion(),
+        TodoConstant.EVENT_CHANGES,
+        changes
+      );
+    } catch (UserNotFoundException e) {
+      LOGGER.debug(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,365 @@
+package com.todo.taskManager.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.constant.TodoConstant;
+import com.todo.taskManager.domain.Todo;
+import com.todo.taskManager.repository.TodoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-user inverted index over todo titles and descriptions. A user's index
+ * is built from the database on their first search and then kept current by
+ * the todo mutations, which are applied once their transaction commits;
+ * writes for users without a loaded index cost nothing. Each index expires
+ * {@code todo.search.expire-after-write-minutes} after it was built, which
+ * bounds how long writes made on another node stay invisible.
+ */
+@Service
+public class TodoSearchIndex {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile(
+    "[^\\p{L}\\p{N}]+"
+  );
+  private static final int MAX_TERM_LENGTH = 64;
+  private static final int TITLE_WEIGHT = 3;
+  private static final int DESCRIPTION_WEIGHT = 1;
+  // a prefix match ranks below the same word typed out in full
+  private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+  private final TodoRepository todoRepository;
+  private final Cache<String, UserIndex> indexes;
+  // indexes reading the table; a write committing meanwhile may be missing
+  private final Map<String, UserIndex> building = new ConcurrentHashMap<>();
+
+  @Autowired
+  public TodoSearchIndex(
+    TodoRepository todoRepository,
+    @Value("${todo.search.maximum-users:10000}") long maximumUsers,
+    @Value("${todo.search.expire-after-write-minutes:10}") long expireMinutes,
+    MeterRegistry meterRegistry
+  ) {
+    this.todoRepository = todoRepository;
+    this.indexes =
+      CacheBuilder
+        .newBuilder()
+        .maximumSize(maximumUsers)
+        .expireAfterWrite(expireMinutes, TimeUnit.MINUTES)
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(
+      meterRegistry,
+      indexes,
+      MetricConstant.TODO_SEARCH_INDEX
+    );
+  }
+
+  /** Ids of the user's todos matching every word of the query, best first. */
+  public List<Long> search(String username, String query, int limit) {
+    List<String> tokens = tokenize(query);
+    if (tokens.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return index(username).search(tokens, limit);
+  }
+
+  /** Indexed words starting with the prefix, most common first. */
+  public List<String> suggest(String username, String prefix, int limit) {
+    List<String> tokens = tokenize(prefix);
+    if (tokens.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return index(username).suggest(tokens.get(tokens.size() - 1), limit);
+  }
+
+  public void indexed(Todo todo) {
+    if (todo.getUsername() == null || todo.getId() == null) {
+      return;
+    }
+    Long id = todo.getId();
+    String username = todo.getUsername();
+    Map<String, Integer> terms = weigh(todo);
+    afterCommit(() -> update(username, index -> index.put(id, terms)));
+  }
+
+  public void removed(String username, Long id) {
+    removed(username, Collections.singletonList(id));
+  }
+
+  public void removed(String username, Collection<Long> ids) {
+    if (username == null) {
+      return;
+    }
+    afterCommit(() -> update(username, index -> ids.forEach(index::remove)));
+  }
+
+  /**
+   * Applies a committed write to the user's index if one is loaded. An
+   * index still being built may have read the table before the commit, so
+   * it is marked stale instead and rebuilt by the next search.
+   */
+  private void update(String username, Consumer<UserIndex> write) {
+    UserIndex index = indexes.getIfPresent(username);
+    if (index != null) {
+      write.accept(index);
+    }
+    UserIndex pending = building.get(username);
+    if (pending != null) {
+      pending.stale = true;
+    }
+  }
+
+  private UserIndex index(String username) {
+    UserIndex index = getOrLoad(username);
+    if (index.stale) {
+      indexes.asMap().remove(username, index);
+      index = getOrLoad(username);
+    }
+    return index;
+  }
+
+  private UserIndex getOrLoad(String username) {
+    UserIndex index;
+    try {
+      index = indexes.get(username, () -> load(username));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+    // only now is the index where update finds it
+    building.remove(username, index);
+    return index;
+  }
+
+  private UserIndex load(String username) {
+    UserIndex index = new UserIndex();
+    building.put(username, index);
+    try {
+      for (Todo todo : todoRepository.findByUsername(username)) {
+        index.put(todo.getId(), weigh(todo));
+      }
+    } catch (RuntimeException e) {
+      building.remove(username, index);
+      throw e;
+    }
+    return index;
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        }
+      );
+    } else {
+      action.run();
+    }
+  }
+
+  static Map<String, Integer> weigh(Todo todo) {
+    Map<String, Integer> terms = new HashMap<>();
+    for (String term : tokenize(todo.getTodoTitle())) {
+      terms.merge(term, TITLE_WEIGHT, Integer::sum);
+    }
+    for (String term : tokenize(todo.getDescription())) {
+      terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+    }
+    return terms;
+  }
+
+  /** Lower-cased words with accents stripped, so "Café" matches "cafe". */
+  static List<String> tokenize(String text) {
+    if (text == null || text.isEmpty()) {
+      return Collections.emptyList();
+    }
+    String normalized = DIACRITICS
+      .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+      .replaceAll("")
+      .toLowerCase(Locale.ROOT);
+    List<String> tokens = new ArrayList<>();
+    for (String token : SEPARATORS.split(normalized)) {
+      if (!token.isEmpty() && token.length() <= MAX_TERM_LENGTH) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  static final class UserIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private volatile boolean stale;
+
+    void put(Long id, Map<String, Integer> terms) {
+      lock.writeLock().lock();
+      try {
+        removeLocked(id);
+        documents.put(id, terms);
+        terms.forEach(
+          (term, weight) ->
+            postings.computeIfAbsent(term, key -> new HashMap<>()).put(id, weight)
+        );
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void remove(Long id) {
+      lock.writeLock().lock();
+      try {
+        removeLocked(id);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    /**
+     * Every token has to match; the last one also matches as a prefix so
+     * results follow the user while typing. Scores add up weight times
+     * inverse document frequency, so rare words and title hits rank first.
+     */
+    List<Long> search(List<String> tokens, int limit) {
+      lock.readLock().lock();
+      try {
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < tokens.size() && (scores == null || !scores.isEmpty()); i++) {
+          String token = tokens.get(i);
+          Map<Long, Double> tokenScores = new HashMap<>();
+          for (Map.Entry<String, Map<Long, Integer>> posting : matching(token, i == tokens.size() - 1)) {
+            double idf = Math.log(1 + (double) documents.size() / posting.getValue().size());
+            double factor = posting.getKey().equals(token) ? 1 : PREFIX_MATCH_FACTOR;
+            posting
+              .getValue()
+              .forEach((id, weight) -> tokenScores.merge(id, weight * idf * factor, Double::sum));
+          }
+          if (scores == null) {
+            scores = tokenScores;
+          } else {
+            scores.keySet().retainAll(tokenScores.keySet());
+            scores.replaceAll((id, score) -> score + tokenScores.get(id));
+          }
+        }
+        return top(scores, limit);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    List<String> suggest(String prefix, int limit) {
+      lock.readLock().lock();
+      try {
+        List<Map.Entry<String, Map<Long, Integer>>> matches = matching(prefix, true);
+        matches.sort(
+          Comparator
+            .comparingInt((Map.Entry<String, Map<Long, Integer>> entry) -> entry.getValue().size())
+            .reversed()
+            .thenComparing(Map.Entry::getKey)
+        );
+        List<String> suggestions = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+          suggestions.add(matches.get(i).getKey());
+        }
+        return suggestions;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private List<Map.Entry<String, Map<Long, Integer>>> matching(String token, boolean prefix) {
+      List<Map.Entry<String, Map<Long, Integer>>> matches = new ArrayList<>();
+      if (!prefix) {
+        Map<Long, Integer> posting = postings.get(token);
+        if (posting != null) {
+          matches.add(Map.entry(token, posting));
+        }
+        return matches;
+      }
+      // short prefixes can cover much of the vocabulary; the first
+      // expansions in term order are enough for autocomplete
+      Iterator<Map.Entry<String, Map<Long, Integer>>> terms = postings
+        .subMap(token, true, token + Character.MAX_VALUE, false)
+        .entrySet()
+        .iterator();
+      while (terms.hasNext() && matches.size() < TodoConstant.MAX_PREFIX_EXPANSIONS) {
+        matches.add(terms.next());
+      }
+      return matches;
+    }
+
+    private void removeLocked(Long id) {
+      Map<String, Integer> terms = documents.remove(id);
+      if (terms == null) {
+        return;
+      }
+      for (String term : terms.keySet()) {
+        Map<Long, Integer> posting = postings.get(term);
+        if (posting != null) {
+          posting.remove(id);
+          if (posting.isEmpty()) {
+            postings.remove(term);
+          }
+        }
+      }
+    }
+
+    private static List<Long> top(Map<Long, Double> scores, int limit) {
+      if (scores == null || scores.isEmpty()) {
+        return Collections.emptyList();
+      }
+      // ties go to the newer todo
+      Comparator<Map.Entry<Long, Double>> ranking = Map.Entry
+        .<Long, Double>comparingByValue()
+        .thenComparing(Map.Entry.comparingByKey());
+      PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(ranking);
+      for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+        best.offer(entry);
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+      List<Long> ids = new ArrayList<>(best.size());
+      while (!best.isEmpty()) {
+        ids.add(best.poll().getKey());
+      }
+      Collections.reverse(ids);
+      return ids;
+    }
+  }
+}
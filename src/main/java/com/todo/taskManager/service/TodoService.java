@@ -1,16 +1,100 @@
 package com.todo.taskManager.service;
 
+import com.todo.taskManager.domain.BatchItemResult;
 import com.todo.taskManager.domain.Todo;
+import com.todo.taskManager.domain.TodoChanges;
+import com.todo.taskManager.domain.TodoDuePage;
+import com.todo.taskManager.domain.TodoPage;
+import com.todo.taskManager.domain.TodoPatch;
+import com.todo.taskManager.exception.domain.BatchTooLargeException;
+import com.todo.taskManager.exception.domain.EventSubscriptionLimitException;
 import com.todo.taskManager.exception.domain.TodoNotFoundException;
+import com.todo.taskManager.exception.domain.TodoVersionConflictException;
 import com.todo.taskManager.exception.domain.UserNotFoundException;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface TodoService {
   List<Todo> getTodos(String username) throws UserNotFoundException;
 
+  TodoPage getTodos(String username, Long cursor, int size)
+    throws UserNotFoundException;
+
+  long getListVersion(String username) throws UserNotFoundException;
+
+  TodoChanges getChanges(String username, long since)
+    throws UserNotFoundException;
+
+  SseEmitter subscribe(String username, Long lastEventId)
+    throws UserNotFoundException, EventSubscriptionLimitException;
+
+  TodoDuePage getOverdueTodos(
+    String username,
+    Date afterDueDate,
+    Long afterId,
+    int size
+  ) throws UserNotFoundException;
+
+  TodoDuePage getTodosDueToday(
+    String username,
+    ZoneId zone,
+    Date afterDueDate,
+    Long afterId,
+    int size
+  ) throws UserNotFoundException;
+
+  TodoDuePage getTodosDueBetween(
+    String username,
+    Date from,
+    Date to,
+    Date afterDueDate,
+    Long afterId,
+    int size
+  ) throws UserNotFoundException;
+
+  void streamTodos(String username, Consumer<Todo> consumer);
+
+  void validateUsername(String username) throws UserNotFoundException;
+
+  List<Todo> searchTodos(String username, String query, int limit)
+    throws UserNotFoundException;
+
+  List<String> suggestTerms(String username, String prefix, int limit)
+    throws UserNotFoundException;
+
   Todo addTodo(Todo todo);
 
-  Todo updateTodo(Todo todo) throws TodoNotFoundException;
+  Todo updateTodo(Todo todo, Long expectedVersion)
+    throws TodoNotFoundException, TodoVersionConflictException;
+
+  Todo patchTodo(
+    String username,
+    Long todoId,
+    TodoPatch patch,
+    Long expectedVersion
+  ) throws TodoNotFoundException, TodoVersionConflictException;
+
+  /**
+   * Deletes a todo by id alone. Not scoped by owner or version, and not
+   * recorded in any list's changes; prefer the owner's delete.
+   */
+  void deleteTodo(Long todoId) throws TodoNotFoundException;
+
+  void deleteTodo(String username, Long todoId, Long expectedVersion)
+    throws TodoNotFoundException, TodoVersionConflictException;
+
+  List<BatchItemResult> addTodos(List<Todo> todos)
+    throws BatchTooLargeException;
+
+  List<BatchItemResult> updateTodos(List<Todo> todos)
+    throws BatchTooLargeException;
+
+  List<BatchItemResult> completeTodos(List<Long> todoIds)
+    throws BatchTooLargeException;
 
-  Todo deleteTodo(Long todoId) throws TodoNotFoundException;
+  List<BatchItemResult> deleteTodos(List<Long> todoIds)
+    throws BatchTooLargeException;
 }
@@ -0,0 +1,139 @@
+package com.todo.taskManager.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per-user todo list versions and deletion tombstones. A write takes the
+ * next version under the row lock of the user's version row and holds it
+ * until commit, so versions become visible in order: once a reader sees
+ * version N, every change stamped N or lower is readable too.
+ */
+@Service
+public class TodoSyncService {
+
+  private static final String BUMP_VERSION =
+    "insert into todo_list_version (username, version) values (?, 1) " +
+    "on duplicate key update version = version + 1";
+  private static final String SELECT_VERSION =
+    "select version from todo_list_version where username = ?";
+  private static final String SELECT_VERSIONS =
+    "select username, version from todo_list_version where username in (%s)";
+  private static final String SELECT_PURGED_THROUGH =
+    "select tombstones_purged_through from todo_list_version where username = ?";
+  private static final String UPSERT_TOMBSTONE =
+    "insert into todo_tombstone (username, todo_id, version, deleted_at) values (?, ?, ?, ?) " +
+    "on duplicate key update version = values(version), deleted_at = values(deleted_at)";
+  private static final String DELETE_TOMBSTONE =
+    "delete from todo_tombstone where username = ? and todo_id = ?";
+  private static final String SELECT_TOMBSTONES =
+    "select todo_id from todo_tombstone where username = ? and version > ?";
+  private static final String RECORD_PURGE =
+    "update todo_list_version set tombstones_purged_through = greatest(tombstones_purged_through, " +
+    "(select max(t.version) from todo_tombstone t where t.username = todo_list_version.username and t.deleted_at < ?)) " +
+    "where username in (select username from todo_tombstone where deleted_at < ?)";
+  private static final String DELETE_TOMBSTONES =
+    "delete from todo_tombstone where deleted_at < ?";
+
+  private JdbcTemplate jdbcTemplate;
+  private long tombstoneRetentionMillis;
+
+  @Autowired
+  public TodoSyncService(
+    JdbcTemplate jdbcTemplate,
+    @Value("${todo.sync.tombstone-retention-days:30}") long tombstoneRetentionDays
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tombstoneRetentionMillis = TimeUnit.DAYS.toMillis(tombstoneRetentionDays);
+  }
+
+  /**
+   * Takes the next list version of each user, in username order so two
+   * writers touching the same users cannot deadlock. Must be called inside
+   * the transaction that writes the stamped rows.
+   */
+  public Map<String, Long> nextVersions(Collection<String> usernames) {
+    Map<String, Long> versions = new HashMap<>();
+    TreeSet<String> ordered = usernames
+      .stream()
+      .filter(Objects::nonNull)
+      .collect(Collectors.toCollection(TreeSet::new));
+    for (String username : ordered) {
+      jdbcTemplate.update(BUMP_VERSION, username);
+      versions.put(username, currentVersion(username));
+    }
+    return versions;
+  }
+
+  public long currentVersion(String username) {
+    List<Long> versions = jdbcTemplate.queryForList(SELECT_VERSION, Long.class, username);
+    return versions.isEmpty() ? 0 : versions.get(0);
+  }
+
+  /** Users without a version row are left out, as if at version 0. */
+  public Map<String, Long> currentVersions(Collection<String> usernames) {
+    Map<String, Long> versions = new HashMap<>();
+    if (usernames.isEmpty()) {
+      return versions;
+    }
+    String placeholders = String.join(",", Collections.nCopies(usernames.size(), "?"));
+    jdbcTemplate.query(
+      String.format(SELECT_VERSIONS, placeholders),
+      row -> {
+        versions.put(row.getString(1), row.getLong(2));
+      },
+      usernames.toArray()
+    );
+    return versions;
+  }
+
+  /** False once tombstones newer than {@code since} may have been purged. */
+  public boolean canSyncFrom(String username, long since) {
+    List<Long> purged = jdbcTemplate.queryForList(
+      SELECT_PURGED_THROUGH,
+      Long.class,
+      username
+    );
+    return purged.isEmpty() || purged.get(0) <= since;
+  }
+
+  public void tombstone(String username, Collection<Long> todoIds, long version) {
+    long now = System.currentTimeMillis();
+    List<Object[]> rows = new ArrayList<>(todoIds.size());
+    for (Long todoId : todoIds) {
+      rows.add(new Object[] { username, todoId, version, now });
+    }
+    jdbcTemplate.batchUpdate(UPSERT_TOMBSTONE, rows);
+  }
+
+  /** A todo moved back into a list is an upsert again, not a deletion. */
+  public void clearTombstone(String username, Long todoId) {
+    jdbcTemplate.update(DELETE_TOMBSTONE, username, todoId);
+  }
+
+  public List<Long> deletedSince(String username, long since) {
+    return jdbcTemplate.queryForList(SELECT_TOMBSTONES, Long.class, username, since);
+  }
+
+  @Transactional
+  @Scheduled(fixedDelayString = "${todo.sync.tombstone-purge-interval-ms:3600000}")
+  public void purgeTombstones() {
+    long cutoff = System.currentTimeMillis() - tombstoneRetentionMillis;
+    jdbcTemplate.update(RECORD_PURGE, cutoff, cutoff);
+    jdbcTemplate.update(DELETE_TOMBSTONES, cutoff);
+  }
+}
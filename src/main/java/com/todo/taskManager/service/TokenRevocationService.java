@@ -0,0 +1,115 @@
+package com.todo.taskManager.service;
+
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.utility.TokenRevocationList;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Persists revocations and keeps the {@link TokenRevocationList} of this
+ * node in step with the others. Requests only ever read the in-memory
+ * list; the database is written on revocation and polled in the
+ * background.
+ */
+@Service
+public class TokenRevocationService {
+
+  // rows written by other nodes with slightly skewed clocks are read again
+  private static final long SYNC_OVERLAP_MILLIS = 60_000;
+
+  private static final String INSERT_TOKEN =
+    "insert ignore into revoked_token (jti, expires_at, revoked_at) values (?, ?, ?)";
+  private static final String UPSERT_USER =
+    "insert into user_token_revocation (username, revoked_before) values (?, ?) " +
+    "on duplicate key update revoked_before = greatest(revoked_before, values(revoked_before))";
+  private static final String SELECT_TOKENS =
+    "select jti, expires_at from revoked_token where revoked_at > ? and expires_at > ?";
+  private static final String SELECT_USERS =
+    "select username, revoked_before from user_token_revocation where revoked_before > ?";
+  private static final String DELETE_EXPIRED_TOKENS =
+    "delete from revoked_token where expires_at < ?";
+  private static final String DELETE_EXPIRED_USERS =
+    "delete from user_token_revocation where revoked_before < ?";
+
+  private JdbcTemplate jdbcTemplate;
+  private TokenRevocationList tokenRevocationList;
+  private volatile long lastSync;
+
+  @Autowired
+  public TokenRevocationService(
+    JdbcTemplate jdbcTemplate,
+    TokenRevocationList tokenRevocationList
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tokenRevocationList = tokenRevocationList;
+  }
+
+  /**
+   * Returns false if the token was already revoked, here or on another
+   * node: the insert is what makes a single-use token used, so two
+   * requests presenting it at once cannot both succeed.
+   */
+  public boolean revokeToken(String jti, long expiresAt) {
+    tokenRevocationList.revokeToken(jti, expiresAt);
+    return (
+      jdbcTemplate.update(INSERT_TOKEN, jti, expiresAt, System.currentTimeMillis()) ==
+      1
+    );
+  }
+
+  /**
+   * Revokes every token issued to {@code username} up to the end of the
+   * current second. JWT issue times only have second precision, so a token
+   * from earlier in this second cannot be told apart from one issued just
+   * after; both are revoked, and a new login works from the next second.
+   */
+  public void revokeUser(String username) {
+    long revokedBefore = (System.currentTimeMillis() / 1000 + 1) * 1000;
+    tokenRevocationList.revokeUser(username, revokedBefore);
+    jdbcTemplate.update(UPSERT_USER, username, revokedBefore);
+  }
+
+  @PostConstruct
+  public void load() {
+    lastSync = 0;
+    sync();
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+  public void sync() {
+    long now = System.currentTimeMillis();
+    long since = Math.max(0, lastSync - SYNC_OVERLAP_MILLIS);
+    long oldestLiveToken = now - SecurityConstant.REFRESH_EXPIRATION_TIME;
+
+    jdbcTemplate.query(
+      SELECT_TOKENS,
+      row -> {
+        tokenRevocationList.revokeToken(row.getString(1), row.getLong(2));
+      },
+      since,
+      now
+    );
+    jdbcTemplate.query(
+      SELECT_USERS,
+      row -> {
+        tokenRevocationList.revokeUser(row.getString(1), row.getLong(2));
+      },
+      Math.max(since, oldestLiveToken)
+    );
+    lastSync = now;
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+  public void purgeExpired() {
+    long now = System.currentTimeMillis();
+    tokenRevocationList.purgeExpired(now, SecurityConstant.REFRESH_EXPIRATION_TIME);
+    jdbcTemplate.update(DELETE_EXPIRED_TOKENS, now);
+    jdbcTemplate.update(
+      DELETE_EXPIRED_USERS,
+      now - SecurityConstant.REFRESH_EXPIRATION_TIME
+    );
+  }
+}
@@ -0,0 +1,262 @@
+package com.todo.taskManager.service;
+
+import com.todo.taskManager.constant.FileConstant;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.stream.Stream;
+import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Owns the on-disk layout for user files. User folders live under
+ * {@code users/ab/cd/<username>} where {@code abcd} starts the SHA-256 of
+ * the username, so no directory grows past a few hundred entries. File
+ * contents are stored once under {@code blobs/ab/cd/<sha256>} and hard
+ * linked into user folders, so identical uploads share one copy. Every
+ * write lands in a temporary file that is renamed into place.
+ */
+@Service
+public class UserFileStorage {
+
+  private static final long BLOB_GRACE_MILLIS = 60_000;
+
+  private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+  private final Path users;
+  private final Path blobs;
+  private final Path legacyUsers;
+  private final boolean migrateLegacy;
+
+  @Autowired
+  public UserFileStorage(
+    @Value("${user.storage.migrate-legacy:true}") boolean migrateLegacy
+  ) {
+    this(
+      Paths.get(FileConstant.STORAGE_FOLDER),
+      Paths.get(FileConstant.USER_FOLDER),
+      migrateLegacy
+    );
+  }
+
+  public UserFileStorage(Path root, Path legacyUsers, boolean migrateLegacy) {
+    this.users = root.resolve(FileConstant.USERS_DIRECTORY).toAbsolutePath();
+    this.blobs = root.resolve(FileConstant.BLOBS_DIRECTORY).toAbsolutePath();
+    this.legacyUsers = legacyUsers.toAbsolutePath();
+    this.migrateLegacy = migrateLegacy;
+  }
+
+  public Path getUserFolder(String username) {
+    return shard(users, sha256(username)).resolve(username);
+  }
+
+  /** Stores {@code content} as {@code target} and returns its SHA-256. */
+  public String save(InputStream content, Path target) throws IOException {
+    Files.createDirectories(blobs);
+    Path temporary = Files.createTempFile(blobs, null, null);
+    try {
+      MessageDigest digest = newDigest();
+      try (
+        InputStream input = new DigestInputStream(content, digest);
+        OutputStream output = Files.newOutputStream(temporary)
+      ) {
+        input.transferTo(output);
+      }
+      String hash = toHex(digest.digest());
+      link(moveToBlob(temporary, hash), target);
+      return hash;
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /** Moves a finished temporary file into storage as {@code target}. */
+  public String save(Path temporary, Path target) throws IOException {
+    MessageDigest digest = newDigest();
+    try (
+      InputStream input = new DigestInputStream(
+        Files.newInputStream(temporary),
+        digest
+      )
+    ) {
+      input.transferTo(OutputStream.nullOutputStream());
+    }
+    String hash = toHex(digest.digest());
+    try {
+      link(moveToBlob(temporary, hash), target);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return hash;
+  }
+
+  public void deleteUserFolder(String username) throws IOException {
+    Path folder = getUserFolder(username);
+    if (Files.exists(folder)) {
+      FileUtils.deleteDirectory(folder.toFile());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateOnStartup() throws IOException {
+    if (migrateLegacy) {
+      int migrated = migrateLegacyFolders();
+      if (migrated > 0) {
+        LOGGER.info("Migrated " + migrated + " user folders to sharded storage");
+      }
+    }
+  }
+
+  /**
+   * Moves folders from the flat pre-sharding layout into their shards.
+   * Folders that already exist in the new layout are left in place.
+   */
+  public int migrateLegacyFolders() throws IOException {
+    if (!Files.isDirectory(legacyUsers)) {
+      return 0;
+    }
+    int migrated = 0;
+    try (DirectoryStream<Path> folders = Files.newDirectoryStream(legacyUsers)) {
+      for (Path legacy : folders) {
+        if (!Files.isDirectory(legacy)) {
+          continue;
+        }
+        Path target = getUserFolder(legacy.getFileName().toString());
+        if (Files.exists(target)) {
+          LOGGER.warn("Skipping " + legacy + ", " + target + " already exists");
+          continue;
+        }
+        Files.createDirectories(target.getParent());
+        moveAtomically(legacy, target);
+        migrated++;
+      }
+    }
+    return migrated;
+  }
+
+  /**
+   * Deletes blobs no user file links to any more. Only runs where the file
+   * system reports link counts; blobs written within the last
+   * {@code BLOB_GRACE_MILLIS} are kept since their link may not exist yet.
+   */
+  @Scheduled(fixedDelayString = "${user.storage.blob-sweep-interval-ms:3600000}")
+  public int purgeUnreferencedBlobs() throws IOException {
+    if (
+      !Files.isDirectory(blobs) ||
+      !blobs.getFileSystem().supportedFileAttributeViews().contains("unix")
+    ) {
+      return 0;
+    }
+    long cutoff = System.currentTimeMillis() - BLOB_GRACE_MILLIS;
+    int purged = 0;
+    try (Stream<Path> files = Files.walk(blobs)) {
+      Iterable<Path> regularFiles = files.filter(Files::isRegularFile)::iterator;
+      for (Path blob : regularFiles) {
+        if (
+          (Integer) Files.getAttribute(blob, "unix:nlink") == 1 &&
+          Files.getLastModifiedTime(blob).toMillis() < cutoff
+        ) {
+          Files.deleteIfExists(blob);
+          purged++;
+        }
+      }
+    }
+    return purged;
+  }
+
+  private Path moveToBlob(Path temporary, String hash) throws IOException {
+    Path blob = shard(blobs, hash).resolve(hash);
+    if (Files.exists(blob)) {
+      try {
+        // a fresh modification time keeps the sweep away until linked
+        Files.setLastModifiedTime(
+          blob,
+          FileTime.fromMillis(System.currentTimeMillis())
+        );
+        return blob;
+      } catch (NoSuchFileException e) {
+        // swept in the meantime, store this copy instead
+      }
+    }
+    Files.createDirectories(blob.getParent());
+    moveAtomically(temporary, blob);
+    return blob;
+  }
+
+  private void link(Path blob, Path target) throws IOException {
+    Files.createDirectories(target.getParent());
+    Path temporary = target.resolveSibling(
+      "." + target.getFileName() + "." + System.nanoTime()
+    );
+    try {
+      Files.createLink(temporary, blob);
+    } catch (UnsupportedOperationException | FileSystemException e) {
+      Files.copy(blob, temporary);
+    }
+    try {
+      moveAtomically(temporary, target);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private static void moveAtomically(Path source, Path target)
+    throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static Path shard(Path base, String hash) {
+    Path shard = base;
+    for (int level = 0; level < FileConstant.SHARD_LEVELS; level++) {
+      int start = level * FileConstant.SHARD_WIDTH;
+      shard =
+        shard.resolve(hash.substring(start, start + FileConstant.SHARD_WIDTH));
+    }
+    return shard;
+  }
+
+  private static String sha256(String value) {
+    return toHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+      hex.append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+}
@@ -0,0 +1,197 @@
+package com.todo.taskManager.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.todo.taskManager.domain.CacheStatistics;
+import com.todo.taskManager.domain.User;
+import com.todo.taskManager.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches users by username and email. Entries are private snapshots and
+ * every lookup returns its own copy, so callers may change what they get
+ * without touching the cache or each other. Users are evicted here when
+ * they change, and on every node once {@link TokenRevocationService}
+ * records a revocation for them (deleted, locked, disabled or renamed);
+ * anything else changed on another node shows up within the TTL.
+ */
+@Service
+public class UserLookupCache {
+
+  private static final int MAXIMUM_SIZE = 10_000;
+  private static final String USERS_BY_USERNAME = "usersByUsername";
+  private static final String USERS_BY_EMAIL = "usersByEmail";
+  // rows written by other nodes with slightly skewed clocks are read again
+  private static final long SYNC_OVERLAP_MILLIS = 60_000;
+  private static final String SELECT_REVOKED_USERS =
+    "select username from user_token_revocation where revoked_before > ?";
+
+  private UserRepository userRepository;
+  private JdbcTemplate jdbcTemplate;
+  private Cache<String, User> usersByUsername;
+  private Cache<String, User> usersByEmail;
+  private volatile long lastSync = System.currentTimeMillis();
+
+  @Autowired
+  public UserLookupCache(
+    UserRepository userRepository,
+    JdbcTemplate jdbcTemplate,
+    @Value(
+      "${user.cache.expire-after-write-seconds:30}"
+    ) long expireAfterWriteSeconds,
+    MeterRegistry meterRegistry
+  ) {
+    this.userRepository = userRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.usersByUsername = buildCache(expireAfterWriteSeconds);
+    this.usersByEmail = buildCache(expireAfterWriteSeconds);
+    GuavaCacheMetrics.monitor(meterRegistry, usersByUsername, USERS_BY_USERNAME);
+    GuavaCacheMetrics.monitor(meterRegistry, usersByEmail, USERS_BY_EMAIL);
+  }
+
+  public User findUserByUsername(String username) {
+    return find(usersByUsername, username, userRepository::findUserByUsername);
+  }
+
+  public User findUserByEmail(String email) {
+    return find(usersByEmail, email, userRepository::findUserByEmail);
+  }
+
+  public void evict(String username, String email) {
+    evictNow(username, email);
+    // evict again once the change is visible so a concurrent read that
+    // loaded the old row before commit does not stick around until TTL
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            evictNow(username, email);
+          }
+        }
+      );
+    }
+  }
+
+  public void evict(User user) {
+    if (user != null) {
+      evict(user.getUsername(), user.getEmail());
+    }
+  }
+
+  /** Evicts users whose tokens another node revoked since the last run. */
+  @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+  public void evictRevokedUsers() {
+    long now = System.currentTimeMillis();
+    Set<String> revoked = new HashSet<>(
+      jdbcTemplate.queryForList(
+        SELECT_REVOKED_USERS,
+        String.class,
+        lastSync - SYNC_OVERLAP_MILLIS
+      )
+    );
+    if (!revoked.isEmpty()) {
+      usersByUsername.invalidateAll(revoked);
+      // emails are not in the table; the snapshots still carry the username
+      // the user had, also when it has since been renamed
+      usersByEmail
+        .asMap()
+        .values()
+        .removeIf(user -> revoked.contains(user.getUsername()));
+    }
+    lastSync = now;
+  }
+
+  public List<CacheStatistics> getStatistics() {
+    return Arrays.asList(
+      new CacheStatistics(
+        USERS_BY_USERNAME,
+        usersByUsername.size(),
+        usersByUsername.stats()
+      ),
+      new CacheStatistics(
+        USERS_BY_EMAIL,
+        usersByEmail.size(),
+        usersByEmail.stats()
+      )
+    );
+  }
+
+  private void evictNow(String username, String email) {
+    if (username != null) {
+      usersByUsername.invalidate(username);
+    }
+    if (email != null) {
+      usersByEmail.invalidate(email);
+    }
+  }
+
+  private User find(
+    Cache<String, User> cache,
+    String key,
+    Function<String, User> loader
+  ) {
+    if (key == null) {
+      return loader.apply(null);
+    }
+    User snapshot = cache.getIfPresent(key);
+    if (snapshot == null) {
+      User user = loader.apply(key);
+      // misses are not cached, so a user is found as soon as it exists
+      if (user == null) {
+        return null;
+      }
+      snapshot = copy(user);
+      cache.put(key, snapshot);
+    }
+    return copy(snapshot);
+  }
+
+  private static User copy(User user) {
+    return new User(
+      user.getId(),
+      user.getUserId(),
+      user.getFirstName(),
+      user.getLastName(),
+      user.getUsername(),
+      user.getPassword(),
+      user.getEmail(),
+      user.getProfileImageUrl(),
+      copy(user.getLastLoginDate()),
+      copy(user.getLastLoginDateDisplay()),
+      copy(user.getJoinDate()),
+      user.getRole(),
+      user.getAuthorities() == null ? null : user.getAuthorities().clone(),
+      user.isActive(),
+      user.isNotLocked()
+    );
+  }
+
+  private static Date copy(Date date) {
+    return date == null ? null : new Date(date.getTime());
+  }
+
+  private static Cache<String, User> buildCache(long expireAfterWriteSeconds) {
+    return CacheBuilder
+      .newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
+}
@@ -1,66 +1,669 @@
 package com.todo.taskManager.service.impl;
 
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.constant.TodoConstant;
+import com.todo.taskManager.domain.BatchItemResult;
 import com.todo.taskManager.domain.Todo;
+import com.todo.taskManager.domain.TodoChanges;
+import com.todo.taskManager.domain.TodoDuePage;
+import com.todo.taskManager.domain.TodoPage;
+import com.todo.taskManager.domain.TodoPatch;
 import com.todo.taskManager.domain.User;
+import com.todo.taskManager.exception.domain.BatchTooLargeException;
+import com.todo.taskManager.exception.domain.EventSubscriptionLimitException;
 import com.todo.taskManager.exception.domain.TodoNotFoundException;
+import com.todo.taskManager.exception.domain.TodoVersionConflictException;
 import com.todo.taskManager.exception.domain.UserNotFoundException;
 import com.todo.taskManager.repository.TodoRepository;
-import com.todo.taskManager.repository.UserRepository;
+import com.todo.taskManager.service.TodoEventBroadcaster;
+import com.todo.taskManager.service.TodoSearchIndex;
 import com.todo.taskManager.service.TodoService;
+import com.todo.taskManager.service.TodoSyncService;
+import com.todo.taskManager.service.UserLookupCache;
+import io.micrometer.core.annotation.Timed;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
+@Timed(MetricConstant.TODO_SERVICE)
 public class TodoServiceImpl implements TodoService {
 
   @Autowired
   private TodoRepository todoRepository;
 
   @Autowired
-  private UserRepository userRepository;
+  private UserLookupCache userLookupCache;
+
+  @Autowired
+  private TodoSearchIndex todoSearchIndex;
+
+  @Autowired
+  private TodoSyncService todoSyncService;
+
+  @Autowired
+  private TodoEventBroadcaster todoEventBroadcaster;
+
+  @PersistenceContext
+  private EntityManager entityManager;
 
   @Override
   public List<Todo> getTodos(String username) throws UserNotFoundException {
-    User user = userRepository.findUserByUsername(username);
+    validateUsername(username);
+
+    return todoRepository.findByUsername(username);
+  }
+
+  @Override
+  public TodoPage getTodos(String username, Long cursor, int size)
+    throws UserNotFoundException {
+    validateUsername(username);
+
+    int pageSize = Math.max(1, Math.min(size, TodoConstant.MAX_PAGE_SIZE));
+    List<Todo> todos = todoRepository.findByUsernameAndIdGreaterThanOrderByIdAsc(
+      username,
+      cursor == null ? 0L : cursor,
+      PageRequest.of(0, pageSize)
+    );
+    Long nextCursor = todos.size() < pageSize
+      ? null
+      : todos.get(todos.size() - 1).getId();
+
+    return new TodoPage(todos, nextCursor);
+  }
+
+  @Override
+  public long getListVersion(String username) throws UserNotFoundException {
+    validateUsername(username);
+
+    return todoSyncService.currentVersion(username);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public TodoChanges getChanges(String username, long since)
+    throws UserNotFoundException {
+    validateUsername(username);
+
+    // read the version first: rows read afterwards are at least this new,
+    // so a client resuming from it never misses a change
+    long version = todoSyncService.currentVersion(username);
+    if (since > 0 && since >= version) {
+      return new TodoChanges(version, false, new ArrayList<>(), new ArrayList<>());
+    }
+    // a client with nothing gets the whole list rather than a delta from 0;
+    // V8 moved todos written before versioning off version 0 as well
+    if (since <= 0 || !todoSyncService.canSyncFrom(username, since)) {
+      return new TodoChanges(
+        version,
+        true,
+        todoRepository.findByUsername(username),
+        new ArrayList<>()
+      );
+    }
+    return new TodoChanges(
+      version,
+      false,
+      todoRepository.findByUsernameAndVersionGreaterThan(username, since),
+      todoSyncService.deletedSince(username, since)
+    );
+  }
+
+  @Override
+  public SseEmitter subscribe(String username, Long lastEventId)
+    throws UserNotFoundException, EventSubscriptionLimitException {
+    validateUsername(username);
+
+    TodoEventBroadcaster.Subscriber subscriber = todoEventBroadcaster.subscribe(
+      username
+    );
+    // read after subscribing: anything committed from here on is either in
+    // these changes or queued behind them
+    TodoChanges changes;
+    try {
+      changes = getChanges(username, lastEventId == null ? 0 : lastEventId);
+    } catch (RuntimeException e) {
+      todoEventBroadcaster.cancel(subscriber);
+      throw e;
+    }
+    todoEventBroadcaster.start(
+      subscriber,
+      changes.getVersion(),
+      TodoConstant.EVENT_CHANGES,
+      changes
+    );
+    return subscriber.getEmitter();
+  }
+
+  @Override
+  public TodoDuePage getOverdueTodos(
+    String username,
+    Date afterDueDate,
+    Long afterId,
+    int size
+  ) throws UserNotFoundException {
+    validateUsername(username);
+
+    int pageSize = pageSize(size);
+    List<Todo> todos = todoRepository.findOpenDueBefore(
+      username,
+      afterDueDate == null ? new Date(TodoConstant.EARLIEST_DUE_DATE) : afterDueDate,
+      afterId == null ? 0L : afterId,
+      new Date(),
+      PageRequest.of(0, pageSize)
+    );
+    return toDuePage(todos, pageSize);
+  }
+
+  @Override
+  public TodoDuePage getTodosDueToday(
+    String username,
+    ZoneId zone,
+    Date afterDueDate,
+    Long afterId,
+    int size
+  ) throws UserNotFoundException {
+    LocalDate today = LocalDate.now(zone);
+    return getTodosDueBetween(
+      username,
+      Date.from(today.atStartOfDay(zone).toInstant()),
+      Date.from(today.plusDays(1).atStartOfDay(zone).toInstant()),
+      afterDueDate,
+      afterId,
+      size
+    );
+  }
+
+  @Override
+  public TodoDuePage getTodosDueBetween(
+    String username,
+    Date from,
+    Date to,
+    Date afterDueDate,
+    Long afterId,
+    int size
+  ) throws UserNotFoundException {
+    validateUsername(username);
+
+    int pageSize = pageSize(size);
+    boolean resume = afterDueDate != null && !afterDueDate.before(from);
+    List<Todo> todos = todoRepository.findDueBefore(
+      username,
+      resume ? afterDueDate : from,
+      resume && afterId != null ? afterId : 0L,
+      to,
+      PageRequest.of(0, pageSize)
+    );
+    return toDuePage(todos, pageSize);
+  }
+
+  private static int pageSize(int size) {
+    return Math.max(1, Math.min(size, TodoConstant.MAX_PAGE_SIZE));
+  }
+
+  private static TodoDuePage toDuePage(List<Todo> todos, int pageSize) {
+    if (todos.size() < pageSize) {
+      return new TodoDuePage(todos, null, null);
+    }
+    Todo last = todos.get(todos.size() - 1);
+    return new TodoDuePage(todos, last.getTargetDate(), last.getId());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void streamTodos(String username, Consumer<Todo> consumer) {
+    try (Stream<Todo> todos = todoRepository.streamByUsername(username)) {
+      todos.forEach(
+        todo -> {
+          consumer.accept(todo);
+          // keep the persistence context from growing with the result set
+          entityManager.detach(todo);
+        }
+      );
+    }
+  }
+
+  @Override
+  public void validateUsername(String username) throws UserNotFoundException {
+    User user = userLookupCache.findUserByUsername(username);
 
     if (user == null) {
       throw new UserNotFoundException(
-        "User with username " + username + " does not exist"
+        String.format(TodoConstant.NO_USER_FOUND_BY_USERNAME, username)
       );
     }
+  }
 
-    return todoRepository.findByUsername(username);
+  @Override
+  public List<Todo> searchTodos(String username, String query, int limit)
+    throws UserNotFoundException {
+    validateUsername(username);
+
+    int resultLimit = Math.max(1, Math.min(limit, TodoConstant.MAX_SEARCH_LIMIT));
+    List<Long> ids = todoSearchIndex.search(username, query, resultLimit);
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, Todo> todos = todoRepository
+      .findAllById(ids)
+      .stream()
+      .collect(Collectors.toMap(Todo::getId, Function.identity()));
+    // keep the ranking; a todo deleted on another node is simply skipped
+    return ids
+      .stream()
+      .map(todos::get)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<String> suggestTerms(String username, String prefix, int limit)
+    throws UserNotFoundException {
+    validateUsername(username);
+
+    int resultLimit = Math.max(1, Math.min(limit, TodoConstant.MAX_SEARCH_LIMIT));
+    return todoSearchIndex.suggest(username, prefix, resultLimit);
   }
 
   @Override
+  @Transactional
   public Todo addTodo(Todo todo) {
-    return todoRepository.save(todo);
+    stamp(todo, todoSyncService.nextVersions(Collections.singleton(todo.getUsername())));
+    Todo saved = todoRepository.save(todo);
+    todoSearchIndex.indexed(saved);
+    published(TodoConstant.EVENT_CREATED, saved);
+    return saved;
   }
 
   @Override
-  public Todo updateTodo(Todo todo) throws TodoNotFoundException {
-    Optional<Todo> todoFromDb = todoRepository.findById(todo.getId());
+  @Transactional(
+    rollbackFor = {
+      TodoNotFoundException.class, TodoVersionConflictException.class,
+    }
+  )
+  public Todo updateTodo(Todo todo, Long expectedVersion)
+    throws TodoNotFoundException, TodoVersionConflictException {
+    String username = todo.getUsername();
+    Map<String, Long> versions = todoSyncService.nextVersions(
+      Collections.singleton(username)
+    );
+    stamp(todo, versions);
+    // scoped by the owner named in the body, so a todo of someone else is
+    // not found; it is never moved to that owner
+    if (updateIfCurrent(username, todo, expectedVersion) == 0) {
+      reject(todo.getId(), username);
+    }
+    todoSearchIndex.indexed(todo);
+    published(TodoConstant.EVENT_UPDATED, todo);
+    return todo;
+  }
 
-    if (todoFromDb.isPresent()) {
-      return todoRepository.save(todo);
-    } else {
-      throw new TodoNotFoundException(
-        "Todo with id " + todo.getId() + " does not exsist"
+  @Override
+  @Transactional(
+    rollbackFor = {
+      TodoNotFoundException.class, TodoVersionConflictException.class,
+    }
+  )
+  public Todo patchTodo(
+    String username,
+    Long todoId,
+    TodoPatch patch,
+    Long expectedVersion
+  ) throws TodoNotFoundException, TodoVersionConflictException {
+    Map<String, Long> versions = todoSyncService.nextVersions(
+      Collections.singleton(username)
+    );
+    int updated = todoRepository.patchIfCurrent(
+      todoId,
+      username,
+      expectedVersion,
+      patch,
+      versions.getOrDefault(username, 0L)
+    );
+    if (updated == 0) {
+      reject(todoId, username);
+    }
+    // a patch only carries the fields it changes, but the response, the
+    // search index and the event need the whole row; one primary key read
+    // after the write, under the row lock it took, cannot see anyone else's
+    // change, where reading first would need the same read and a lock
+    Todo todo = todoRepository.findById(todoId).orElseThrow(() -> todoNotFound(todoId));
+    todoSearchIndex.indexed(todo);
+    published(TodoConstant.EVENT_UPDATED, todo);
+    return todo;
+  }
+
+  @Override
+  @Transactional(rollbackFor = TodoNotFoundException.class)
+  public void deleteTodo(Long todoId) throws TodoNotFoundException {
+    // without an owner there is no list to bump, tombstone or notify, so
+    // this is the one statement and sync clients see it on a full reload
+    if (todoRepository.deleteIfPresent(todoId) == 0) {
+      throw todoNotFound(todoId);
+    }
+  }
+
+  @Override
+  @Transactional(
+    rollbackFor = {
+      TodoNotFoundException.class, TodoVersionConflictException.class,
+    }
+  )
+  public void deleteTodo(String username, Long todoId, Long expectedVersion)
+    throws TodoNotFoundException, TodoVersionConflictException {
+    Map<String, Long> versions = todoSyncService.nextVersions(
+      Collections.singleton(username)
+    );
+    if (todoRepository.deleteIfCurrent(todoId, username, expectedVersion) == 0) {
+      reject(todoId, username);
+    }
+    if (username != null) {
+      todoSyncService.tombstone(
+        username,
+        Collections.singleton(todoId),
+        versions.get(username)
+      );
+      todoEventBroadcaster.publishAfterCommit(
+        username,
+        versions.get(username),
+        TodoConstant.EVENT_DELETED,
+        todoId
       );
     }
+    todoSearchIndex.removed(username, todoId);
   }
 
   @Override
-  public Todo deleteTodo(Long todoId) throws TodoNotFoundException {
-    Optional<Todo> todo = todoRepository.findById(todoId);
-    if (todo.isPresent()) {
-      todoRepository.deleteById(todoId);
-      return todo.get();
-    } else {
-      throw new TodoNotFoundException(
-        "Todo with id " + todoId + " does not exsist"
+  @Transactional
+  public List<BatchItemResult> addTodos(List<Todo> todos)
+    throws BatchTooLargeException {
+    validateBatchSize(todos);
+    Map<String, Long> versions = todoSyncService.nextVersions(
+      todos.stream().map(Todo::getUsername).collect(Collectors.toSet())
+    );
+    todos.forEach(todo -> stamp(todo, versions));
+    List<Todo> saved = todoRepository.saveAll(todos);
+    saved.forEach(todoSearchIndex::indexed);
+    saved.forEach(todo -> published(TodoConstant.EVENT_CREATED, todo));
+
+    List<BatchItemResult> results = new ArrayList<>(saved.size());
+    for (int i = 0; i < saved.size(); i++) {
+      results.add(
+        new BatchItemResult(
+          i,
+          saved.get(i).getId(),
+          HttpStatus.CREATED,
+          TodoConstant.TODO_CREATED
+        )
+      );
+    }
+    return results;
+  }
+
+  @Override
+  @Transactional
+  public List<BatchItemResult> updateTodos(List<Todo> todos)
+    throws BatchTooLargeException {
+    validateBatchSize(todos);
+    Map<Long, Todo> existing = todoRepository
+      .findAllById(
+        todos
+          .stream()
+          .map(Todo::getId)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toSet())
+      )
+      .stream()
+      .collect(Collectors.toMap(Todo::getId, Function.identity()));
+    Set<String> usernames = new HashSet<>();
+    for (Todo todo : todos) {
+      Todo managed = todo.getId() == null ? null : existing.get(todo.getId());
+      if (managed != null) {
+        usernames.add(managed.getUsername());
+        usernames.add(todo.getUsername());
+      }
+    }
+    Map<String, Long> versions = todoSyncService.nextVersions(usernames);
+
+    List<BatchItemResult> results = new ArrayList<>(todos.size());
+    for (int i = 0; i < todos.size(); i++) {
+      Todo todo = todos.get(i);
+      Todo managed = todo.getId() == null ? null : existing.get(todo.getId());
+      if (managed == null) {
+        results.add(notFound(i, todo.getId()));
+        continue;
+      }
+      moved(managed.getId(), managed.getUsername(), todo.getUsername(), versions);
+      // changes on managed entities are flushed as one JDBC batch at commit
+      managed.setTodoTitle(todo.getTodoTitle());
+      managed.setUsername(todo.getUsername());
+      managed.setDescription(todo.getDescription());
+      managed.setTargetDate(todo.getTargetDate());
+      managed.setDone(todo.getDone());
+      stamp(managed, versions);
+      todoSearchIndex.indexed(managed);
+      published(TodoConstant.EVENT_UPDATED, managed);
+      results.add(
+        new BatchItemResult(
+          i,
+          todo.getId(),
+          HttpStatus.OK,
+          TodoConstant.TODO_UPDATED
+        )
+      );
+    }
+    return results;
+  }
+
+  @Override
+  @Transactional
+  public List<BatchItemResult> completeTodos(List<Long> todoIds)
+    throws BatchTooLargeException {
+    validateBatchSize(todoIds);
+    Map<String, List<Long>> owned = findOwnedIds(todoIds);
+    Map<String, Long> versions = todoSyncService.nextVersions(owned.keySet());
+    owned.forEach(
+      (username, ids) ->
+        todoRepository.markDone(ids, versions.getOrDefault(username, 0L))
+    );
+    // the bulk update leaves no entities behind; reload only for listeners
+    owned.forEach(
+      (username, ids) -> {
+        if (username != null && todoEventBroadcaster.hasSubscribers(username)) {
+          todoRepository
+            .findAllById(ids)
+            .forEach(todo -> published(TodoConstant.EVENT_UPDATED, todo));
+        }
+      }
+    );
+    return toResults(todoIds, existingIds(owned), TodoConstant.TODO_COMPLETED);
+  }
+
+  @Override
+  @Transactional
+  public List<BatchItemResult> deleteTodos(List<Long> todoIds)
+    throws BatchTooLargeException {
+    validateBatchSize(todoIds);
+    Map<String, List<Long>> owned = findOwnedIds(todoIds);
+    Map<String, Long> versions = todoSyncService.nextVersions(owned.keySet());
+    Set<Long> existing = existingIds(owned);
+    if (!existing.isEmpty()) {
+      todoRepository.deleteAllByIdInBatch(existing);
+      versions.forEach(
+        (username, version) -> {
+          todoSyncService.tombstone(username, owned.get(username), version);
+          for (Long todoId : owned.get(username)) {
+            todoEventBroadcaster.publishAfterCommit(
+              username,
+              version,
+              TodoConstant.EVENT_DELETED,
+              todoId
+            );
+          }
+        }
+      );
+      owned.forEach(todoSearchIndex::removed);
+    }
+    return toResults(todoIds, existing, TodoConstant.TODO_DELETED);
+  }
+
+  /** Existing ids grouped by owner; todos without an owner sit under null. */
+  private Map<String, List<Long>> findOwnedIds(List<Long> todoIds) {
+    Set<Long> ids = todoIds
+      .stream()
+      .filter(Objects::nonNull)
+      .collect(Collectors.toSet());
+    Map<String, List<Long>> owned = new HashMap<>();
+    if (ids.isEmpty()) {
+      return owned;
+    }
+    for (Object[] owner : todoRepository.findOwners(ids)) {
+      owned
+        .computeIfAbsent((String) owner[1], username -> new ArrayList<>())
+        .add((Long) owner[0]);
+    }
+    return owned;
+  }
+
+  private static Set<Long> existingIds(Map<String, List<Long>> owned) {
+    Set<Long> existing = new HashSet<>();
+    owned.values().forEach(existing::addAll);
+    return existing;
+  }
+
+  private static void stamp(Todo todo, Map<String, Long> versions) {
+    todo.setVersion(versions.getOrDefault(todo.getUsername(), 0L));
+  }
+
+  private int updateIfCurrent(String owner, Todo todo, Long expectedVersion) {
+    return todoRepository.updateIfCurrent(
+      todo.getId(),
+      owner,
+      expectedVersion,
+      todo.getTodoTitle(),
+      todo.getUsername(),
+      todo.getDescription(),
+      todo.getTargetDate(),
+      todo.getDone(),
+      todo.getVersion()
+    );
+  }
+
+  /**
+   * Throws why a statement scoped by owner and version changed nothing: the
+   * todo is gone or belongs to someone else, or it has a newer version.
+   */
+  private void reject(Long todoId, String username)
+    throws TodoNotFoundException, TodoVersionConflictException {
+    List<Object[]> owners = todoRepository.findOwners(
+      Collections.singleton(todoId)
+    );
+    if (owners.isEmpty() || !Objects.equals(owners.get(0)[1], username)) {
+      throw todoNotFound(todoId);
+    }
+    throw versionConflict(todoId);
+  }
+
+  private static TodoNotFoundException todoNotFound(Long todoId) {
+    return new TodoNotFoundException(
+      String.format(TodoConstant.NO_TODO_FOUND_BY_ID, todoId)
+    );
+  }
+
+  private static TodoVersionConflictException versionConflict(Long todoId) {
+    return new TodoVersionConflictException(
+      String.format(TodoConstant.TODO_VERSION_CONFLICT, todoId)
+    );
+  }
+
+  private void published(String event, Todo todo) {
+    todoEventBroadcaster.publishAfterCommit(
+      todo.getUsername(),
+      todo.getVersion(),
+      event,
+      todo
+    );
+  }
+
+  /** Leaves a tombstone in the old list when a todo changes owner. */
+  private void moved(
+    Long todoId,
+    String previousUsername,
+    String username,
+    Map<String, Long> versions
+  ) {
+    if (Objects.equals(previousUsername, username)) {
+      return;
+    }
+    if (previousUsername != null) {
+      todoSyncService.tombstone(
+        previousUsername,
+        Collections.singleton(todoId),
+        versions.get(previousUsername)
+      );
+      todoEventBroadcaster.publishAfterCommit(
+        previousUsername,
+        versions.get(previousUsername),
+        TodoConstant.EVENT_DELETED,
+        todoId
+      );
+    }
+    if (username != null) {
+      todoSyncService.clearTombstone(username, todoId);
+    }
+    todoSearchIndex.removed(previousUsername, todoId);
+  }
+
+  private List<BatchItemResult> toResults(
+    List<Long> todoIds,
+    Set<Long> existing,
+    String message
+  ) {
+    List<BatchItemResult> results = new ArrayList<>(todoIds.size());
+    for (int i = 0; i < todoIds.size(); i++) {
+      Long todoId = todoIds.get(i);
+      results.add(
+        existing.contains(todoId)
+          ? new BatchItemResult(i, todoId, HttpStatus.OK, message)
+          : notFound(i, todoId)
+      );
+    }
+    return results;
+  }
+
+  private BatchItemResult notFound(int index, Long todoId) {
+    return new BatchItemResult(
+      index,
+      todoId,
+      HttpStatus.NOT_FOUND,
+      String.format(TodoConstant.NO_TODO_FOUND_BY_ID, todoId)
+    );
+  }
+
+  private void validateBatchSize(List<?> items) throws BatchTooLargeException {
+    if (items.size() > TodoConstant.MAX_BATCH_SIZE) {
+      throw new BatchTooLargeException(
+        String.format(TodoConstant.BATCH_TOO_LARGE, TodoConstant.MAX_BATCH_SIZE)
       );
     }
   }
@@ -1,6 +1,7 @@
 package com.todo.taskManager.service.impl;
 
 import com.todo.taskManager.constant.FileConstant;
+import com.todo.taskManager.constant.MetricConstant;
 import com.todo.taskManager.constant.UserImplConstant;
 import com.todo.taskManager.domain.User;
 import com.todo.taskManager.domain.UserPrincipal;
@@ -11,13 +12,17 @@ import com.todo.taskManager.exception.domain.NotAnImageFileException;
 import com.todo.taskManager.exception.domain.UsernameExistException;
 import com.todo.taskManager.repository.UserRepository;
 import com.todo.taskManager.service.EmailService;
+import com.todo.taskManager.service.LastLoginRecorder;
 import com.todo.taskManager.service.LoginAttemptService;
+import com.todo.taskManager.service.ProfileImageProcessor;
+import com.todo.taskManager.service.TokenRevocationService;
+import com.todo.taskManager.service.UserFileStorage;
+import com.todo.taskManager.service.UserLookupCache;
 import com.todo.taskManager.service.UserService;
-import java.io.File;
+import io.micrometer.core.annotation.Timed;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -25,47 +30,64 @@ import javax.mail.MessagingException;
 import javax.transaction.Transactional;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.tomcat.util.http.fileupload.FileUtils;
 import org.slf4j.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @Service
-@Transactional
+// the password email is queued on commit, so a full mail queue must undo it
+@Transactional(rollbackOn = MessagingException.class)
+@Timed(MetricConstant.USER_SERVICE)
 @Qualifier("userDetailsService")
-public class UserServiceImpl implements UserService, UserDetailsService {
+public class UserServiceImpl implements UserService, UserDetailsService, UserDetailsPasswordService {
 
   private Logger LOGGER = org.slf4j.LoggerFactory.getLogger(getClass());
   private UserRepository userRepository;
-  private BCryptPasswordEncoder passwordEncoder;
+  private PasswordEncoder passwordEncoder;
   private LoginAttemptService loginAttemptService;
   private EmailService emailService;
+  private UserLookupCache userLookupCache;
+  private LastLoginRecorder lastLoginRecorder;
+  private ProfileImageProcessor profileImageProcessor;
+  private UserFileStorage userFileStorage;
+  private TokenRevocationService tokenRevocationService;
 
   @Autowired
   public UserServiceImpl(
     UserRepository userRepository,
-    BCryptPasswordEncoder passwordEncoder,
+    PasswordEncoder passwordEncoder,
     LoginAttemptService loginAttemptService,
-    EmailService emailService
+    EmailService emailService,
+    UserLookupCache userLookupCache,
+    LastLoginRecorder lastLoginRecorder,
+    ProfileImageProcessor profileImageProcessor,
+    UserFileStorage userFileStorage,
+    TokenRevocationService tokenRevocationService
   ) {
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
     this.loginAttemptService = loginAttemptService;
     this.emailService = emailService;
+    this.userLookupCache = userLookupCache;
+    this.lastLoginRecorder = lastLoginRecorder;
+    this.profileImageProcessor = profileImageProcessor;
+    this.userFileStorage = userFileStorage;
+    this.tokenRevocationService = tokenRevocationService;
   }
 
   @Override
   public UserDetails loadUserByUsername(String username)
     throws UsernameNotFoundException {
-    User user = userRepository.findUserByUsername(username);
+    User user = userLookupCache.findUserByUsername(username);
 
     if (user == null) {
       LOGGER.error("User not found by username: " + username);
@@ -73,16 +95,38 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         UserImplConstant.NO_USER_FOUND_BY_USERNAME + username
       );
     } else {
+      boolean wasNotLocked = user.isNotLocked();
       validateLoginAttempt(user);
-      user.setLastLoginDateDisplay(user.getLastLoginDate());
-      user.setLastLoginDate(new Date());
-      userRepository.save(user);
+      if (wasNotLocked != user.isNotLocked()) {
+        // the cached copy may be stale, lock the stored row instead
+        User storedUser = userRepository.findUserByUsername(username);
+        storedUser.setNotLocked(user.isNotLocked());
+        userRepository.save(storedUser);
+        userLookupCache.evict(storedUser);
+      }
+      // login dates are coalesced per user and written in batches
+      lastLoginRecorder.recordLogin(user.getUsername(), new Date());
       UserPrincipal userPrincipal = new UserPrincipal(user);
       LOGGER.info(UserImplConstant.FOUND_USER_BY_USERNAME + username);
       return userPrincipal;
     }
   }
 
+  /**
+   * Called after a successful login whose stored hash has a lower BCrypt
+   * cost than the current one; the password itself is unchanged,
+   * so issued tokens stay valid.
+   */
+  @Override
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    User user = userRepository.findUserByUsername(userDetails.getUsername());
+    user.setPassword(newPassword);
+    userRepository.save(user);
+    userLookupCache.evict(user);
+    LOGGER.info(UserImplConstant.REHASHED_PASSWORD + user.getUsername());
+    return new UserPrincipal(user);
+  }
+
   private void validateLoginAttempt(User user) {
     if (user.isNotLocked()) {
       if (loginAttemptService.hasExceededMaxAttempts(user.getUsername())) {
@@ -121,6 +165,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     user.setProfileImageUrl(getTemporaryProfileImageUrl(username));
 
     userRepository.save(user);
+    userLookupCache.evict(user);
     LOGGER.info("New user password " + password);
     emailService.sendNewPasswordEmail(firstName, password, email);
 
@@ -156,7 +201,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     User userByNewEmail = findUserByEmail(newEmail);
 
     if (StringUtils.isNotBlank(currentUsername)) {
-      User currentUser = findUserByUsername(currentUsername);
+      // returned to be changed and saved, so read past the cache
+      User currentUser = userRepository.findUserByUsername(currentUsername);
       if (currentUser == null) {
         throw new UsernameNotFoundException(
           UserImplConstant.NO_USER_FOUND_BY_USERNAME + currentUsername
@@ -202,12 +248,12 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
   @Override
   public User findUserByUsername(String username) {
-    return userRepository.findUserByUsername(username);
+    return userLookupCache.findUserByUsername(username);
   }
 
   @Override
   public User findUserByEmail(String email) {
-    return userRepository.findUserByEmail(email);
+    return userLookupCache.findUserByEmail(email);
   }
 
   @Override
@@ -243,6 +289,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     user.setAuthorities(getRoleEnumName(role).getAuthorities());
     user.setProfileImageUrl(getTemporaryProfileImageUrl(username));
     userRepository.save(user);
+    userLookupCache.evict(user);
     saveProfileImage(user, profileImage);
 
     return user;
@@ -266,34 +313,20 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         );
       }
 
-      Path userFolder = Paths
-        .get(FileConstant.USER_FOLDER + user.getUsername())
-        .toAbsolutePath()
-        .normalize();
-
-      if (!Files.exists(userFolder)) {
-        Files.createDirectories(userFolder);
-        LOGGER.info(FileConstant.DIRECTORY_CREATED + userFolder);
-      }
-
-      Files.deleteIfExists(
-        Paths.get(
-          userFolder +
-          user.getUsername() +
-          FileConstant.DOT +
-          FileConstant.JPG_EXTENSION
-        )
-      );
-      Files.copy(
-        profileImage.getInputStream(),
-        userFolder.resolve(
+      Path storedImage = userFileStorage
+        .getUserFolder(user.getUsername())
+        .resolve(
           user.getUsername() + FileConstant.DOT + FileConstant.JPG_EXTENSION
-        ),
-        java.nio.file.StandardCopyOption.REPLACE_EXISTING
-      );
+        );
+      try (InputStream content = profileImage.getInputStream()) {
+        userFileStorage.save(content, storedImage);
+      }
+      // served as uploaded until the resized JPEG variants replace it
+      profileImageProcessor.submit(storedImage);
 
       user.setProfileImageUrl(setProfileImageUrl(user.getUsername()));
       userRepository.save(user);
+      userLookupCache.evict(user);
       LOGGER.info(
         FileConstant.FILE_SAVE_IN_FILE_SYSTEM +
         profileImage.getOriginalFilename()
@@ -337,6 +370,14 @@ public class UserServiceImpl implements UserService, UserDetailsService {
       newUsername,
       newEmail
     );
+    userLookupCache.evict(currentUser);
+    // tokens carry the username and authorities, reissue them on change
+    boolean revokeTokens =
+      !isActive ||
+      !isNotLocked ||
+      !currentUser.getUsername().equals(newUsername) ||
+      !getRoleEnumName(role).name().equals(currentUser.getRole());
+    String previousUsername = currentUser.getUsername();
 
     currentUser.setFirstName(newFirstName);
     currentUser.setLastName(newLastName);
@@ -347,6 +388,10 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     currentUser.setRole(getRoleEnumName(role).name());
     currentUser.setAuthorities(getRoleEnumName(role).getAuthorities());
     userRepository.save(currentUser);
+    userLookupCache.evict(currentUser);
+    if (revokeTokens) {
+      tokenRevocationService.revokeUser(previousUsername);
+    }
     saveProfileImage(currentUser, profileImage);
 
     return currentUser;
@@ -355,12 +400,10 @@ public class UserServiceImpl implements UserService, UserDetailsService {
   @Override
   public void deleteUser(String username) throws IOException {
     User user = userRepository.findUserByUsername(username);
-    Path userFolder = Paths
-      .get(FileConstant.USER_FOLDER + user.getUsername())
-      .toAbsolutePath()
-      .normalize();
-    FileUtils.deleteDirectory(new File(userFolder.toString()));
+    userFileStorage.deleteUserFolder(user.getUsername());
     userRepository.deleteById(user.getId());
+    userLookupCache.evict(user);
+    tokenRevocationService.revokeUser(user.getUsername());
   }
 
   @Override
@@ -379,6 +422,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     user.setPassword(encordedPassword(password));
     userRepository.save(user);
+    userLookupCache.evict(user);
+    tokenRevocationService.revokeUser(user.getUsername());
     emailService.sendNewPasswordEmail(
       user.getFirstName(),
       password,
@@ -0,0 +1,51 @@
+package com.todo.taskManager.utility;
+
+import java.util.Arrays;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the highest BCrypt cost whose hash stays within a time budget on
+ * this machine. Each cost step doubles the work, so one cost is timed and
+ * the others are extrapolated from it.
+ */
+public class BCryptCostCalibrator {
+
+  private static final String SAMPLE_PASSWORD = "calibration-password";
+  private static final int SAMPLES = 5;
+
+  private BCryptCostCalibrator() {}
+
+  public static int calibrate(
+    long targetMillis,
+    int minimumCost,
+    int maximumCost
+  ) {
+    long[] nanos = new long[SAMPLES];
+    String salt = BCrypt.gensalt(minimumCost);
+    // the first round warms up the JIT and is discarded
+    BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return costFor(nanos[SAMPLES / 2], targetMillis, minimumCost, maximumCost);
+  }
+
+  static int costFor(
+    long nanosAtMinimumCost,
+    long targetMillis,
+    int minimumCost,
+    int maximumCost
+  ) {
+    long targetNanos = targetMillis * 1_000_000;
+    long estimate = Math.max(1, nanosAtMinimumCost);
+    int cost = minimumCost;
+    while (cost < maximumCost && estimate * 2 <= targetNanos) {
+      estimate *= 2;
+      cost++;
+    }
+    return cost;
+  }
+}
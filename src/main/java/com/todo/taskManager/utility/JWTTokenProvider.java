@@ -1,113 +1,224 @@
 package com.todo.taskManager.utility;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.todo.taskManager.constant.MetricConstant;
 import com.todo.taskManager.constant.SecurityConstant;
 import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.domain.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import javax.servlet.http.HttpServletRequest;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import javax.annotation.PostConstruct;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JWTTokenProvider {
 
-  @Value("${jwt.secret}")
-  private String secret;
+  private JwtKeyRing jwtKeyRing;
+  private TokenRevocationList tokenRevocationList;
+  private Cache<String, VerifiedToken> verifiedTokenCache;
+  private MeterRegistry meterRegistry;
+  private Timer verificationTimer;
+
+  public JWTTokenProvider(
+    MeterRegistry meterRegistry,
+    JwtKeyRing jwtKeyRing,
+    TokenRevocationList tokenRevocationList
+  ) {
+    this.meterRegistry = meterRegistry;
+    this.jwtKeyRing = jwtKeyRing;
+    this.tokenRevocationList = tokenRevocationList;
+  }
+
+  @PostConstruct
+  public void init() {
+    verifiedTokenCache =
+      CacheBuilder
+        .newBuilder()
+        .maximumSize(SecurityConstant.VERIFIED_TOKEN_CACHE_SIZE)
+        .expireAfterWrite(
+          SecurityConstant.EXPIRATION_TIME,
+          TimeUnit.MILLISECONDS
+        )
+        .recordStats()
+        .build();
+    verificationTimer = meterRegistry.timer(MetricConstant.JWT_VERIFICATION);
+    GuavaCacheMetrics.monitor(
+      meterRegistry,
+      verifiedTokenCache,
+      MetricConstant.JWT_VERIFIED_TOKEN_CACHE
+    );
+  }
 
   public String generateJwtToken(UserPrincipal userPrincipal) {
     String[] claims = getClaimFromUser(userPrincipal);
+    JwtKeyRing.SigningKey signingKey = jwtKeyRing.getSigningKey();
 
     return JWT
       .create()
+      .withKeyId(signingKey.getKid())
+      .withJWTId(UUID.randomUUID().toString())
       .withIssuer(SecurityConstant.GET_ARRAYS_LLC)
       .withAudience(SecurityConstant.GET_ARRAYS_ADMINISTRATION)
       .withIssuedAt(new Date())
       .withSubject(userPrincipal.getUsername())
+      .withClaim(SecurityConstant.TOKEN_TYPE, SecurityConstant.ACCESS_TOKEN_TYPE)
       .withArrayClaim(SecurityConstant.AUTHORITIES, claims)
       .withExpiresAt(
         new Date(System.currentTimeMillis() + SecurityConstant.EXPIRATION_TIME)
       )
-      .sign(Algorithm.HMAC512(secret.getBytes()));
+      .sign(signingKey.getAlgorithm());
+  }
+
+  public String generateRefreshToken(UserPrincipal userPrincipal) {
+    JwtKeyRing.SigningKey signingKey = jwtKeyRing.getSigningKey();
+
+    return JWT
+      .create()
+      .withKeyId(signingKey.getKid())
+      .withJWTId(UUID.randomUUID().toString())
+      .withIssuer(SecurityConstant.GET_ARRAYS_LLC)
+      .withAudience(SecurityConstant.GET_ARRAYS_ADMINISTRATION)
+      .withIssuedAt(new Date())
+      .withSubject(userPrincipal.getUsername())
+      .withClaim(
+        SecurityConstant.TOKEN_TYPE,
+        SecurityConstant.REFRESH_TOKEN_TYPE
+      )
+      .withExpiresAt(
+        new Date(
+          System.currentTimeMillis() + SecurityConstant.REFRESH_EXPIRATION_TIME
+        )
+      )
+      .sign(signingKey.getAlgorithm());
+  }
+
+  public VerifiedToken verifyToken(String token) {
+    String tokenHash = Hashing
+      .sha256()
+      .hashString(token, StandardCharsets.UTF_8)
+      .toString();
+    VerifiedToken verifiedToken = verifiedTokenCache.getIfPresent(tokenHash);
+
+    if (verifiedToken != null && !verifiedToken.isExpired()) {
+      return verifiedToken;
+    }
+    if (verifiedToken != null) {
+      verifiedTokenCache.invalidate(tokenHash);
+    }
+
+    DecodedJWT decodedJWT = verify(token, SecurityConstant.ACCESS_TOKEN_TYPE);
+    verifiedToken =
+      new VerifiedToken(
+        decodedJWT.getId(),
+        decodedJWT.getSubject(),
+        toAuthorities(decodedJWT),
+        decodedJWT.getIssuedAt(),
+        decodedJWT.getExpiresAt()
+      );
+    verifiedTokenCache.put(tokenHash, verifiedToken);
+    return verifiedToken;
+  }
+
+  /** Verifies a refresh token, which is never cached and must not be revoked. */
+  public DecodedJWT verifyRefreshToken(String token) {
+    DecodedJWT decodedJWT = verify(token, SecurityConstant.REFRESH_TOKEN_TYPE);
+    if (
+      tokenRevocationList.isRevoked(
+        decodedJWT.getId(),
+        decodedJWT.getSubject(),
+        decodedJWT.getIssuedAt().getTime()
+      )
+    ) {
+      throw new JWTVerificationException(SecurityConstant.TOKEN_REVOKED);
+    }
+    return decodedJWT;
   }
 
   public List<GrantedAuthority> getAuthorities(String token) {
-    String[] claims = getClaimsFromToken(token);
-    return Arrays
-      .stream(claims)
-      .map(SimpleGrantedAuthority::new)
-      .collect(Collectors.toList());
+    return verifyToken(token).getAuthorities();
   }
 
-  public Authentication getAuthentication(
-    String username,
-    List<GrantedAuthority> authorities,
-    HttpServletRequest request
-  ) {
-    UsernamePasswordAuthenticationToken userPasswordautToken = new UsernamePasswordAuthenticationToken(
-      username,
-      null,
-      authorities
-    );
-    userPasswordautToken.setDetails(
-      new WebAuthenticationDetailsSource().buildDetails(request)
-    );
-    return userPasswordautToken;
+  public Authentication getAuthentication(VerifiedToken verifiedToken) {
+    return verifiedToken.getAuthentication();
   }
 
   public boolean isTokenValid(String username, String token) {
-    JWTVerifier verifier = getJWTVerifier();
+    return isTokenValid(username, verifyToken(token));
+  }
 
+  public boolean isTokenValid(String username, VerifiedToken verifiedToken) {
     return (
       org.apache.commons.lang3.StringUtils.isNotEmpty(username) &&
-      !isTokenExpired(verifier, token)
+      !verifiedToken.isExpired() &&
+      !tokenRevocationList.isRevoked(
+        verifiedToken.getJti(),
+        username,
+        verifiedToken.getIssuedAt().getTime()
+      )
     );
   }
 
   public String getSubject(String token) {
-    JWTVerifier verifier = getJWTVerifier();
-    return verifier.verify(token).getSubject();
+    return verifyToken(token).getUsername();
   }
 
-  private boolean isTokenExpired(JWTVerifier verifier, String token) {
-    Date expiration = verifier.verify(token).getExpiresAt();
-    return expiration.before(new Date());
+  private DecodedJWT verify(String token, String tokenType) {
+    long start = System.nanoTime();
+    DecodedJWT decodedJWT;
+    try {
+      decodedJWT = JWT.decode(token);
+      JwtKeyRing.SigningKey key = jwtKeyRing.getKey(decodedJWT.getKeyId());
+      if (key == null) {
+        throw new JWTVerificationException(
+          SecurityConstant.UNKNOWN_SIGNING_KEY
+        );
+      }
+      decodedJWT = key.getVerifier().verify(decodedJWT);
+    } finally {
+      verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (
+      !tokenType.equals(
+        decodedJWT.getClaim(SecurityConstant.TOKEN_TYPE).asString()
+      ) ||
+      decodedJWT.getIssuedAt() == null
+    ) {
+      throw new JWTVerificationException(SecurityConstant.WRONG_TOKEN_TYPE);
+    }
+    return decodedJWT;
   }
 
-  private String[] getClaimsFromToken(String token) {
-    JWTVerifier verifier = getJWTVerifier();
-    return verifier
-      .verify(token)
+  private List<GrantedAuthority> toAuthorities(DecodedJWT decodedJWT) {
+    String[] claims = decodedJWT
       .getClaim(SecurityConstant.AUTHORITIES)
       .asArray(String.class);
-  }
-
-  private JWTVerifier getJWTVerifier() {
-    JWTVerifier verifier;
-    try {
-      Algorithm algorithm = Algorithm.HMAC512(secret);
-      verifier =
-        JWT
-          .require(algorithm)
-          .withIssuer(SecurityConstant.GET_ARRAYS_LLC)
-          .build();
-    } catch (JWTVerificationException exception) {
-      throw new JWTVerificationException(
-        SecurityConstant.TOKEN_CANNOT_BE_VERIFIED
-      );
+    if (claims == null) {
+      return Collections.emptyList();
     }
-    return verifier;
+    return Collections.unmodifiableList(
+      Arrays
+        .stream(claims)
+        .map(SimpleGrantedAuthority::new)
+        .collect(Collectors.toList())
+    );
   }
 
   private String[] getClaimFromUser(UserPrincipal user) {
@@ -0,0 +1,307 @@
+package com.todo.taskManager.utility;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.todo.taskManager.constant.SecurityConstant;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ES256 keys used to sign and verify JWTs. Each key is stored in the key
+ * directory as {@code <kid>.key} and {@code <kid>.pub}, where the kid is the
+ * creation time, so every node sharing the directory signs with the newest
+ * key and verifies with any of them. Retired keys stay available for
+ * verification until the last token they signed has expired.
+ * <p>
+ * Nodes with {@code jwt.keys.signing} off only verify: they need just the
+ * {@code .pub} files, never create or remove keys, and cannot sign.
+ */
+@Component
+public class JwtKeyRing {
+
+  private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+  private final Path directory;
+  private final long rotationInterval;
+  private final boolean signing;
+  private volatile NavigableMap<String, SigningKey> keys =
+    Collections.emptyNavigableMap();
+  private volatile long lastReload;
+
+  @Autowired
+  public JwtKeyRing(
+    @Value("${jwt.keys.directory}") String directory,
+    @Value(
+      "${jwt.keys.rotation-interval-ms:" +
+      SecurityConstant.KEY_ROTATION_INTERVAL +
+      "}"
+    ) long rotationInterval,
+    @Value("${jwt.keys.signing:true}") boolean signing
+  ) {
+    this(Paths.get(directory), rotationInterval, signing);
+  }
+
+  public JwtKeyRing(Path directory, long rotationInterval) {
+    this(directory, rotationInterval, true);
+  }
+
+  public JwtKeyRing(Path directory, long rotationInterval, boolean signing) {
+    this.directory = directory;
+    this.rotationInterval = rotationInterval;
+    this.signing = signing;
+    reload();
+    if (signing && newestSigningKey() == null) {
+      rotate();
+    }
+  }
+
+  public SigningKey getSigningKey() {
+    SigningKey key = newestSigningKey();
+    if (key == null) {
+      throw new IllegalStateException(SecurityConstant.NO_SIGNING_KEY);
+    }
+    return key;
+  }
+
+  /**
+   * Returns the key for {@code kid}, reading the directory again when the
+   * kid is unknown in case another node has rotated. Reloads are limited
+   * so made-up kids cannot turn into disk reads on every request.
+   */
+  public SigningKey getKey(String kid) {
+    SigningKey key = kid == null ? null : keys.get(kid);
+    if (
+      key == null &&
+      System.currentTimeMillis() - lastReload >
+      SecurityConstant.KEY_RELOAD_INTERVAL
+    ) {
+      reload();
+      key = kid == null ? null : keys.get(kid);
+    }
+    return key;
+  }
+
+  public List<SigningKey> getKeys() {
+    return new ArrayList<>(keys.values());
+  }
+
+  /** Creates a new signing key once the newest is older than the interval. */
+  @Scheduled(fixedDelayString = "${jwt.keys.check-interval-ms:3600000}")
+  public void rotateIfDue() {
+    reload();
+    if (!signing) {
+      return;
+    }
+    SigningKey newest = newestSigningKey();
+    if (
+      newest == null ||
+      System.currentTimeMillis() - newest.createdAt >= rotationInterval
+    ) {
+      rotate();
+    }
+  }
+
+  public synchronized void rotate() {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance(
+        SecurityConstant.KEY_ALGORITHM
+      );
+      generator.initialize(new ECGenParameterSpec(SecurityConstant.KEY_CURVE));
+      KeyPair keyPair = generator.generateKeyPair();
+      String kid = Long.toString(System.currentTimeMillis());
+
+      Files.createDirectories(directory);
+      // the private key is written last, a kid only signs once it exists
+      write(
+        file(kid, SecurityConstant.PUBLIC_KEY_EXTENSION),
+        keyPair.getPublic().getEncoded()
+      );
+      write(
+        file(kid, SecurityConstant.PRIVATE_KEY_EXTENSION),
+        keyPair.getPrivate().getEncoded()
+      );
+      LOGGER.info("Created JWT signing key " + kid);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    removeExpiredKeys();
+    reload();
+  }
+
+  private synchronized void reload() {
+    NavigableMap<String, SigningKey> loaded = new TreeMap<>(
+      Comparator.comparingLong(Long::parseLong)
+    );
+    if (Files.isDirectory(directory)) {
+      try (
+        DirectoryStream<Path> files = Files.newDirectoryStream(
+          directory,
+          "*" + SecurityConstant.PUBLIC_KEY_EXTENSION
+        )
+      ) {
+        for (Path publicKey : files) {
+          String name = publicKey.getFileName().toString();
+          String kid = name.substring(
+            0,
+            name.length() - SecurityConstant.PUBLIC_KEY_EXTENSION.length()
+          );
+          if (!kid.chars().allMatch(Character::isDigit) || kid.isEmpty()) {
+            continue;
+          }
+          SigningKey current = keys.get(kid);
+          // read again while a signing node waits for the private key
+          loaded.put(
+            kid,
+            current != null && (current.canSign() || !signing)
+              ? current
+              : read(kid)
+          );
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    keys = Collections.unmodifiableNavigableMap(loaded);
+    lastReload = System.currentTimeMillis();
+  }
+
+  private SigningKey newestSigningKey() {
+    for (SigningKey key : keys.descendingMap().values()) {
+      if (key.canSign()) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  private void removeExpiredKeys() {
+    if (keys.size() < 2) {
+      return;
+    }
+    long retiredBefore =
+      System.currentTimeMillis() -
+      rotationInterval -
+      SecurityConstant.REFRESH_EXPIRATION_TIME;
+    // the newest key still signs and is never removed however old
+    for (SigningKey key : keys.headMap(keys.lastKey(), false).values()) {
+      if (key.createdAt < retiredBefore) {
+        try {
+          Files.deleteIfExists(file(key.kid, SecurityConstant.PRIVATE_KEY_EXTENSION));
+          Files.deleteIfExists(file(key.kid, SecurityConstant.PUBLIC_KEY_EXTENSION));
+        } catch (IOException e) {
+          LOGGER.error("Could not remove JWT key " + key.kid + ": " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  private Path file(String kid, String extension) {
+    return directory.resolve(kid + extension);
+  }
+
+  private SigningKey read(String kid) throws IOException {
+    try {
+      KeyFactory factory = KeyFactory.getInstance(
+        SecurityConstant.KEY_ALGORITHM
+      );
+      ECPublicKey publicKey = (ECPublicKey) factory.generatePublic(
+        new X509EncodedKeySpec(
+          Files.readAllBytes(file(kid, SecurityConstant.PUBLIC_KEY_EXTENSION))
+        )
+      );
+      Path privateKeyFile = file(kid, SecurityConstant.PRIVATE_KEY_EXTENSION);
+      ECPrivateKey privateKey = signing && Files.exists(privateKeyFile)
+        ? (ECPrivateKey) factory.generatePrivate(
+          new PKCS8EncodedKeySpec(Files.readAllBytes(privateKeyFile))
+        )
+        : null;
+      return new SigningKey(kid, Long.parseLong(kid), publicKey, privateKey);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void write(Path file, byte[] content) throws IOException {
+    Path temporary = Files.createTempFile(file.getParent(), null, null);
+    Files.write(temporary, content);
+    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * A key pair with its algorithm and verifier built once. Without the
+   * private key it only verifies.
+   */
+  public static class SigningKey {
+
+    private final String kid;
+    private final long createdAt;
+    private final ECPublicKey publicKey;
+    private final boolean canSign;
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+
+    private SigningKey(
+      String kid,
+      long createdAt,
+      ECPublicKey publicKey,
+      ECPrivateKey privateKey
+    ) {
+      this.kid = kid;
+      this.createdAt = createdAt;
+      this.publicKey = publicKey;
+      this.canSign = privateKey != null;
+      this.algorithm = Algorithm.ECDSA256(publicKey, privateKey);
+      this.verifier =
+        JWT.require(algorithm).withIssuer(SecurityConstant.GET_ARRAYS_LLC).build();
+    }
+
+    public String getKid() {
+      return kid;
+    }
+
+    public ECPublicKey getPublicKey() {
+      return publicKey;
+    }
+
+    public boolean canSign() {
+      return canSign;
+    }
+
+    public Algorithm getAlgorithm() {
+      return algorithm;
+    }
+
+    public JWTVerifier getVerifier() {
+      return verifier;
+    }
+  }
+}
@@ -0,0 +1,385 @@
+package com.todo.taskManager.utility;
+
+import com.todo.taskManager.constant.EmailConstant;
+import com.todo.taskManager.constant.MetricConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues outbound messages and delivers them from a fixed set of worker
+ * threads. Each worker keeps its SMTP connection open between messages and
+ * drains up to {@code batchSize} queued messages per wake-up, so a burst of
+ * mail goes out over one connection instead of one handshake per message.
+ * Failed messages are re-queued with exponential backoff. Queue capacity
+ * can be reserved ahead of time, so a caller that must not lose a message
+ * finds out the queue is full while it can still fail.
+ */
+public class MailDeliveryPipeline {
+
+  private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+  private final Session session;
+  private final String protocol;
+  private final String host;
+  private final int port;
+  private final String username;
+  private final String password;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long idleTimeoutMillis;
+
+  private final BlockingQueue<PendingMessage> queue;
+  // queued messages plus outstanding reservations, at most queueCapacity
+  private final Semaphore slots;
+  private final ExecutorService workers;
+  private final ScheduledExecutorService retryScheduler;
+  private final AtomicInteger pending = new AtomicInteger();
+  private final Timer sendTimer;
+  private final Counter retryCounter;
+  private final Counter droppedCounter;
+  private volatile boolean running = true;
+
+  public MailDeliveryPipeline(
+    Session session,
+    String protocol,
+    String host,
+    int port,
+    String username,
+    String password,
+    int workerCount,
+    int queueCapacity,
+    int batchSize,
+    int maxAttempts,
+    long initialBackoffMillis,
+    long idleTimeoutMillis,
+    MeterRegistry meterRegistry
+  ) {
+    this(
+      session,
+      protocol,
+      host,
+      port,
+      username,
+      password,
+      workerCount,
+      queueCapacity,
+      batchSize,
+      maxAttempts,
+      initialBackoffMillis,
+      idleTimeoutMillis,
+      null,
+      meterRegistry
+    );
+  }
+
+  /**
+   * @param workerThreadFactory creates the delivery workers; {@code null}
+   *        uses daemon platform threads, which javax.mail needs to not pin
+   *        virtual thread carriers
+   */
+  public MailDeliveryPipeline(
+    Session session,
+    String protocol,
+    String host,
+    int port,
+    String username,
+    String password,
+    int workerCount,
+    int queueCapacity,
+    int batchSize,
+    int maxAttempts,
+    long initialBackoffMillis,
+    long idleTimeoutMillis,
+    ThreadFactory workerThreadFactory,
+    MeterRegistry meterRegistry
+  ) {
+    this.session = session;
+    this.protocol = protocol;
+    this.host = host;
+    this.port = port;
+    this.username = username;
+    this.password = password;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.queue = new LinkedBlockingQueue<>();
+    this.slots = new Semaphore(queueCapacity);
+    this.sendTimer = meterRegistry.timer(MetricConstant.MAIL_SEND);
+    this.retryCounter = meterRegistry.counter(MetricConstant.MAIL_RETRIES);
+    this.droppedCounter = meterRegistry.counter(MetricConstant.MAIL_DROPPED);
+    meterRegistry.gauge(MetricConstant.MAIL_QUEUE_SIZE, queue, BlockingQueue::size);
+
+    AtomicInteger threadCount = new AtomicInteger();
+    if (workerThreadFactory == null) {
+      workerThreadFactory =
+        runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            EmailConstant.MAIL_DELIVERY_THREAD_NAME +
+            threadCount.incrementAndGet()
+          );
+          thread.setDaemon(true);
+          return thread;
+        };
+    }
+    // one worker per SMTP connection, whatever kind of thread runs it
+    this.workers = Executors.newFixedThreadPool(workerCount, workerThreadFactory);
+    this.retryScheduler =
+      Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            EmailConstant.MAIL_DELIVERY_THREAD_NAME + "retry"
+          );
+          thread.setDaemon(true);
+          return thread;
+        }
+      );
+    for (int i = 0; i < workerCount; i++) {
+      workers.execute(this::work);
+    }
+  }
+
+  public void submit(Message message) throws MessagingException {
+    reserve().submit(message);
+  }
+
+  /**
+   * Takes one queue slot now for a message submitted later. The slot is
+   * held until {@link Reservation#submit} or {@link Reservation#cancel}.
+   */
+  public Reservation reserve() throws MessagingException {
+    if (!running || !slots.tryAcquire()) {
+      throw new MessagingException(EmailConstant.MAIL_QUEUE_FULL);
+    }
+    return new Reservation();
+  }
+
+  /** Number of messages queued, in flight or waiting for a retry. */
+  public int getPendingCount() {
+    return pending.get();
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  public void shutdown(long timeout, TimeUnit unit) {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (pending.get() > 0 && System.nanoTime() < deadline) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    running = false;
+    retryScheduler.shutdownNow();
+    workers.shutdownNow();
+    if (pending.get() > 0) {
+      LOGGER.warn("Dropping " + pending.get() + " undelivered messages");
+    }
+  }
+
+  private void work() {
+    Transport transport = null;
+    long lastUsed = System.currentTimeMillis();
+    List<PendingMessage> batch = new ArrayList<>(batchSize);
+
+    try {
+      while (running) {
+        PendingMessage first = queue.poll(
+          Math.min(idleTimeoutMillis, 1000),
+          TimeUnit.MILLISECONDS
+        );
+        if (first == null) {
+          if (
+            transport != null &&
+            System.currentTimeMillis() - lastUsed >= idleTimeoutMillis
+          ) {
+            close(transport);
+            transport = null;
+          }
+          continue;
+        }
+
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        slots.release(batch.size());
+        for (PendingMessage pendingMessage : batch) {
+          transport = deliver(transport, pendingMessage);
+        }
+        batch.clear();
+        lastUsed = System.currentTimeMillis();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      close(transport);
+    }
+  }
+
+  private Transport deliver(Transport transport, PendingMessage pendingMessage) {
+    try {
+      return attempt(transport, pendingMessage);
+    } catch (RuntimeException e) {
+      // e.g. a malformed address: it would fail the same way again, and
+      // letting it escape would end this worker for good
+      pending.decrementAndGet();
+      droppedCounter.increment();
+      LOGGER.error("Dropping email that cannot be sent: " + e);
+      return null;
+    }
+  }
+
+  private Transport attempt(Transport transport, PendingMessage pendingMessage) {
+    Transport connected;
+    try {
+      connected = send(transport, pendingMessage.message);
+    } catch (MessagingException e) {
+      if (transport == null) {
+        retry(pendingMessage, e);
+        return null;
+      }
+      // the server may have dropped an idle connection, try a fresh one
+      // before counting this as a failed attempt
+      try {
+        connected = send(null, pendingMessage.message);
+      } catch (MessagingException retryException) {
+        retry(pendingMessage, retryException);
+        return null;
+      }
+    }
+    pending.decrementAndGet();
+    return connected;
+  }
+
+  private Transport send(Transport transport, Message message)
+    throws MessagingException {
+    Transport connected = transport;
+    try {
+      if (connected == null) {
+        connected = session.getTransport(protocol);
+        connected.connect(host, port, username, password);
+      }
+      long start = System.nanoTime();
+      connected.sendMessage(message, message.getAllRecipients());
+      sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return connected;
+    } catch (MessagingException | RuntimeException e) {
+      close(connected);
+      throw e;
+    }
+  }
+
+  private void retry(PendingMessage pendingMessage, MessagingException cause) {
+    pendingMessage.attempts++;
+    if (pendingMessage.attempts >= maxAttempts || !running) {
+      pending.decrementAndGet();
+      droppedCounter.increment();
+      LOGGER.error(
+        "Giving up on email after " +
+        pendingMessage.attempts +
+        " attempts: " +
+        cause.getMessage()
+      );
+      return;
+    }
+
+    long backoff = initialBackoffMillis << (pendingMessage.attempts - 1);
+    retryCounter.increment();
+    LOGGER.warn(
+      "Email delivery failed, retrying in " +
+      backoff +
+      " ms: " +
+      cause.getMessage()
+    );
+    retryScheduler.schedule(
+      () -> {
+        if (slots.tryAcquire()) {
+          queue.add(pendingMessage);
+        } else {
+          pending.decrementAndGet();
+          droppedCounter.increment();
+          LOGGER.error(EmailConstant.MAIL_QUEUE_FULL);
+        }
+      },
+      backoff,
+      TimeUnit.MILLISECONDS
+    );
+  }
+
+  private void close(Transport transport) {
+    if (transport == null) {
+      return;
+    }
+    try {
+      transport.close();
+    } catch (MessagingException e) {
+      LOGGER.debug("Error closing mail transport: " + e.getMessage());
+    }
+  }
+
+  public final class Reservation {
+
+    private final AtomicBoolean used = new AtomicBoolean();
+
+    private Reservation() {}
+
+    /**
+     * Queues the message in the reserved slot; never fails for capacity.
+     * After {@link #shutdown} nothing would deliver it, so it is dropped.
+     */
+    public void submit(Message message) {
+      if (!used.compareAndSet(false, true)) {
+        return;
+      }
+      if (!running) {
+        slots.release();
+        droppedCounter.increment();
+        LOGGER.error("Dropping email submitted after shutdown");
+        return;
+      }
+      pending.incrementAndGet();
+      queue.add(new PendingMessage(message));
+    }
+
+    public void cancel() {
+      if (used.compareAndSet(false, true)) {
+        slots.release();
+      }
+    }
+  }
+
+  private static class PendingMessage {
+
+    private final Message message;
+    private int attempts;
+
+    private PendingMessage(Message message) {
+      this.message = message;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.todo.taskManager.utility;
+
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.exception.domain.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs hashing on a small fixed pool with a bounded queue. At most
+ * {@code threads} hashes burn CPU at once whatever the request load, and
+ * once the queue is full callers fail fast with
+ * {@link PasswordHashingBusyException} (a 503).
+ * <p>
+ * This only limits CPU concurrency. The calling request thread still
+ * blocks until its hash is done or {@code timeoutMillis} passes, so a
+ * login holds its Tomcat thread for its wait in the queue plus the hash.
+ * What it bounds is how many such threads can be waiting.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final long timeoutMillis;
+  private final Counter rejectedCounter;
+
+  public OffloadingPasswordEncoder(
+    PasswordEncoder delegate,
+    int threads,
+    int queueCapacity,
+    long timeoutMillis,
+    MeterRegistry meterRegistry
+  ) {
+    this.delegate = delegate;
+    this.timeoutMillis = timeoutMillis;
+    BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+      new ThreadPoolExecutor(
+        threads,
+        threads,
+        0,
+        TimeUnit.MILLISECONDS,
+        queue,
+        runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            SecurityConstant.PASSWORD_HASHING_THREAD_NAME +
+            threadCount.incrementAndGet()
+          );
+          thread.setDaemon(true);
+          return thread;
+        }
+      );
+    this.rejectedCounter = meterRegistry.counter(MetricConstant.PASSWORD_REJECTED);
+    meterRegistry.gauge(
+      MetricConstant.PASSWORD_QUEUE_SIZE,
+      queue,
+      BlockingQueue::size
+    );
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return offload(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return offload(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private <T> T offload(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejectedCounter.increment();
+      throw new PasswordHashingBusyException(
+        SecurityConstant.PASSWORD_HASHING_BUSY
+      );
+    }
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejectedCounter.increment();
+      throw new PasswordHashingBusyException(
+        SecurityConstant.PASSWORD_HASHING_BUSY
+      );
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingBusyException(
+        SecurityConstant.PASSWORD_HASHING_BUSY
+      );
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.todo.taskManager.utility;
+
+import com.todo.taskManager.constant.MetricConstant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class TimedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+  // "$2a$10$..." keeps the cost in the two digits after the version
+  private static final int COST_START = 4;
+  private static final int COST_END = 6;
+
+  private final int strength;
+  private final Timer encodeTimer;
+  private final Timer matchTimer;
+
+  public TimedBCryptPasswordEncoder(MeterRegistry meterRegistry) {
+    this(meterRegistry, 10);
+  }
+
+  public TimedBCryptPasswordEncoder(MeterRegistry meterRegistry, int strength) {
+    super(strength);
+    this.strength = strength;
+    this.encodeTimer = meterRegistry.timer(MetricConstant.PASSWORD_ENCODE);
+    this.matchTimer = meterRegistry.timer(MetricConstant.PASSWORD_MATCH);
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return encodeTimer.record(() -> super.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return matchTimer.record(() -> super.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Rehashes only hashes cheaper than the current cost. Nodes that
+   * calibrated to different costs would otherwise keep rewriting the same
+   * users' hashes back and forth, and a lowered cost would weaken them.
+   */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null || encodedPassword.length() < COST_END) {
+      return false;
+    }
+    try {
+      return (
+        Integer.parseInt(encodedPassword.substring(COST_START, COST_END)) <
+        strength
+      );
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+}
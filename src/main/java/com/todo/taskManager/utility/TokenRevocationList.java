@@ -0,0 +1,47 @@
+package com.todo.taskManager.utility;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory view of revoked tokens, checked on every authenticated request.
+ * A token is revoked either by its jti or because its user had every token
+ * issued before a point in time revoked (disabled, locked, deleted or
+ * password reset). Both checks are single hash lookups. Revoked jtis are
+ * dropped once the token would have expired anyway, so with short-lived
+ * access tokens the set stays small.
+ */
+@Component
+public class TokenRevocationList {
+
+  private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+  private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+  public void revokeToken(String jti, long expiresAt) {
+    revokedTokens.merge(jti, expiresAt, Math::max);
+  }
+
+  public void revokeUser(String username, long revokedBefore) {
+    revokedUsers.merge(username, revokedBefore, Math::max);
+  }
+
+  public boolean isRevoked(String jti, String username, long issuedAt) {
+    if (jti != null && revokedTokens.containsKey(jti)) {
+      return true;
+    }
+    Long revokedBefore = revokedUsers.get(username);
+    return revokedBefore != null && issuedAt < revokedBefore;
+  }
+
+  public void purgeExpired(long now, long longestTokenLifetime) {
+    revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+    revokedUsers
+      .values()
+      .removeIf(revokedBefore -> revokedBefore + longestTokenLifetime < now);
+  }
+
+  public int size() {
+    return revokedTokens.size() + revokedUsers.size();
+  }
+}
@@ -0,0 +1,96 @@
+package com.todo.taskManager.utility;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads without a compile-time dependency on JDK 21: the build
+ * still targets Java 11, so the builder API is looked up reflectively and
+ * {@link #isSupported()} is false on older runtimes.
+ */
+public final class VirtualThreads {
+
+  private static final MethodHandle OF_VIRTUAL;
+  private static final MethodHandle NAME;
+  private static final MethodHandle FACTORY;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle name = null;
+    MethodHandle factory = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      Class<?> virtualBuilder = Class.forName(
+        "java.lang.Thread$Builder$OfVirtual"
+      );
+      ofVirtual =
+        lookup.findStatic(
+          Thread.class,
+          "ofVirtual",
+          MethodType.methodType(virtualBuilder)
+        );
+      name =
+        lookup.findVirtual(
+          builder,
+          "name",
+          MethodType.methodType(builder, String.class, long.class)
+        );
+      factory =
+        lookup.findVirtual(
+          builder,
+          "factory",
+          MethodType.methodType(ThreadFactory.class)
+        );
+    } catch (ReflectiveOperationException e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    FACTORY = factory;
+  }
+
+  private VirtualThreads() {}
+
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /** Factory for virtual threads named {@code prefix0}, {@code prefix1}, ... */
+  public static ThreadFactory threadFactory(String prefix) {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException(
+        "Virtual threads need Java 21 or newer, running on " +
+        Runtime.version()
+      );
+    }
+    try {
+      Object builder = OF_VIRTUAL.invoke();
+      builder = NAME.invoke(builder, prefix, 0L);
+      return (ThreadFactory) FACTORY.invoke(builder);
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Unbounded executor that starts one virtual thread per task. */
+  public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+    ThreadFactory threadFactory = threadFactory(prefix);
+    try {
+      return (ExecutorService) MethodHandles
+        .publicLookup()
+        .findStatic(
+          Executors.class,
+          "newThreadPerTaskExecutor",
+          MethodType.methodType(ExecutorService.class, ThreadFactory.class)
+        )
+        .invoke(threadFactory);
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
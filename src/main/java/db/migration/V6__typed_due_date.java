@@ -0,0 +1,150 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replaces the free-form todo.target_date string with a due_at datetime
+ * indexed together with username. A Java migration because the old values
+ * were whatever the client sent; the formats below cover ISO dates and
+ * timestamps, epoch millis and the common numeric date layouts. Values
+ * that match none of them leave due_at empty and are kept as written in
+ * todo_unparsed_target_date, so they can still be fixed up by hand.
+ */
+public class V6__typed_due_date extends BaseJavaMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    V6__typed_due_date.class
+  );
+  private static final int BATCH_SIZE = 500;
+  private static final List<DateTimeFormatter> DATE_FORMATS = Arrays.asList(
+    DateTimeFormatter.ISO_LOCAL_DATE,
+    DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+    DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+    DateTimeFormatter.ofPattern("dd.MM.yyyy")
+  );
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("alter table todo add column due_at datetime(6)");
+      statement.execute(
+        "create table todo_unparsed_target_date (" +
+        "todo_id bigint not null, target_date varchar(255) not null, " +
+        "primary key (todo_id)) engine=InnoDB"
+      );
+    }
+
+    int unparsed = 0;
+    try (
+      Statement select = connection.createStatement();
+      ResultSet rows = select.executeQuery(
+        "select id, target_date from todo where target_date is not null"
+      );
+      PreparedStatement update = connection.prepareStatement(
+        "update todo set due_at = ? where id = ?"
+      );
+      PreparedStatement keep = connection.prepareStatement(
+        "insert into todo_unparsed_target_date (todo_id, target_date) values (?, ?)"
+      )
+    ) {
+      int pending = 0;
+      int pendingUnparsed = 0;
+      while (rows.next()) {
+        String targetDate = rows.getString(2);
+        Timestamp dueAt = parse(targetDate);
+        if (dueAt == null) {
+          keep.setLong(1, rows.getLong(1));
+          keep.setString(2, targetDate);
+          keep.addBatch();
+          unparsed++;
+          if (++pendingUnparsed == BATCH_SIZE) {
+            keep.executeBatch();
+            pendingUnparsed = 0;
+          }
+          continue;
+        }
+        update.setTimestamp(1, dueAt);
+        update.setLong(2, rows.getLong(1));
+        update.addBatch();
+        if (++pending == BATCH_SIZE) {
+          update.executeBatch();
+          pending = 0;
+        }
+      }
+      if (pending > 0) {
+        update.executeBatch();
+      }
+      if (pendingUnparsed > 0) {
+        keep.executeBatch();
+      }
+    }
+    if (unparsed > 0) {
+      LOGGER.warn(
+        "{} todo target dates could not be parsed, see todo_unparsed_target_date",
+        unparsed
+      );
+    }
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("alter table todo drop column target_date");
+      statement.execute(
+        "create index idx_todo_username_due_at on todo (username, due_at)"
+      );
+    }
+  }
+
+  /** Date-only values become local midnight, as Hibernate writes them. */
+  static Timestamp parse(String value) {
+    String text = value.trim();
+    if (text.isEmpty()) {
+      return null;
+    }
+    if (
+      text.length() > 8 &&
+      text.length() < 19 &&
+      text.chars().allMatch(Character::isDigit)
+    ) {
+      return new Timestamp(Long.parseLong(text));
+    }
+    try {
+      return Timestamp.from(OffsetDateTime.parse(text).toInstant());
+    } catch (DateTimeParseException e) {
+      // not a timestamp with an offset
+    }
+    try {
+      return Timestamp.from(Instant.parse(text));
+    } catch (DateTimeParseException e) {
+      // not a UTC instant
+    }
+    try {
+      return Timestamp.valueOf(LocalDateTime.parse(text));
+    } catch (DateTimeParseException e) {
+      // not a local timestamp
+    }
+    for (DateTimeFormatter format : DATE_FORMATS) {
+      try {
+        return Timestamp.valueOf(LocalDate.parse(text, format).atStartOfDay());
+      } catch (DateTimeParseException e) {
+        // try the next layout
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,37 @@
+-- Schema as previously generated by hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip it.
+
+create table hibernate_sequence (
+  next_val bigint
+) engine=InnoDB;
+
+insert into hibernate_sequence values (1);
+
+create table todo (
+  id bigint not null,
+  description varchar(255),
+  done bit not null,
+  target_date varchar(255),
+  todo_title varchar(255),
+  username varchar(255),
+  primary key (id)
+) engine=InnoDB;
+
+create table `user` (
+  id bigint not null,
+  authorities tinyblob,
+  email varchar(255),
+  first_name varchar(255),
+  is_active bit not null,
+  is_not_locked bit not null,
+  join_date datetime(6),
+  last_login_date datetime(6),
+  last_login_date_display datetime(6),
+  last_name varchar(255),
+  password varchar(255),
+  profile_image_url varchar(255),
+  role varchar(255),
+  user_id varchar(255),
+  username varchar(255),
+  primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,6 @@
+-- (username, id) serves findByUsername and the keyset-paginated listing.
+create index idx_todo_username_id on todo (username, id);
+
+create unique index uk_user_username on `user` (username);
+
+create unique index uk_user_email on `user` (email);
@@ -0,0 +1,11 @@
+-- Failed logins shared by every node; rows older than the window are purged.
+create table login_attempt (
+  id bigint not null auto_increment,
+  username varchar(255) not null,
+  attempted_at bigint not null,
+  primary key (id)
+) engine=InnoDB;
+
+create index idx_login_attempt_username_at on login_attempt (username, attempted_at);
+
+create index idx_login_attempt_at on login_attempt (attempted_at);
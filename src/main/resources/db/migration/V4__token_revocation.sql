@@ -0,0 +1,17 @@
+-- Revocations are loaded into memory on startup and polled by every node.
+create table revoked_token (
+  jti varchar(64) not null,
+  expires_at bigint not null,
+  revoked_at bigint not null,
+  primary key (jti)
+) engine=InnoDB;
+
+create index idx_revoked_token_revoked_at on revoked_token (revoked_at);
+
+create table user_token_revocation (
+  username varchar(255) not null,
+  revoked_before bigint not null,
+  primary key (username)
+) engine=InnoDB;
+
+create index idx_user_token_revocation_before on user_token_revocation (revoked_before);
@@ -0,0 +1,11 @@
+-- Todo ids come from their own pooled generator row so a batch insert of
+-- 50 todos costs one sequence round trip instead of 50. The first block
+-- handed out ends at next_val, so it starts past every existing id.
+create table todo_id_sequence (
+  sequence_name varchar(255) not null,
+  next_val bigint,
+  primary key (sequence_name)
+) engine=InnoDB;
+
+insert into todo_id_sequence (sequence_name, next_val)
+select 'todo', coalesce(max(id), 0) + 51 from todo;
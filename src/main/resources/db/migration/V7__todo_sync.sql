@@ -0,0 +1,24 @@
+-- Every todo change takes the next per-user list version; clients poll for
+-- rows and tombstones above the last version they saw.
+alter table todo add column version bigint not null default 0;
+
+create index idx_todo_username_version on todo (username, version);
+
+create table todo_list_version (
+  username varchar(255) not null,
+  version bigint not null,
+  -- tombstones up to this version are gone; older clients resync fully
+  tombstones_purged_through bigint not null default 0,
+  primary key (username)
+) engine=InnoDB;
+
+create table todo_tombstone (
+  username varchar(255) not null,
+  todo_id bigint not null,
+  version bigint not null,
+  deleted_at bigint not null,
+  primary key (username, todo_id)
+) engine=InnoDB;
+
+create index idx_todo_tombstone_version on todo_tombstone (username, version);
+create index idx_todo_tombstone_deleted_at on todo_tombstone (deleted_at);
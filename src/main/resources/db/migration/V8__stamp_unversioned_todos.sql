@@ -0,0 +1,15 @@
+-- Todos written before V7 sit at version 0, which no delta request
+-- (version > since) ever returns. Give them their owner's next list
+-- version so clients that have synced pick them up as changes.
+insert into todo_list_version (username, version)
+select distinct t.username, 0 from todo t
+where t.version = 0 and t.username is not null
+  and not exists (select 1 from todo_list_version v where v.username = t.username);
+
+update todo_list_version set version = version + 1
+where username in (select username from todo where version = 0);
+
+update todo t set version = (
+  select v.version from todo_list_version v where v.username = t.username
+)
+where t.version = 0 and t.username is not null;
@@ -0,0 +1,55 @@
+package com.todo.taskManager.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestConcurrencyLimitFilterTests {
+
+	@Test
+	void passesRequestsWithinTheLimit() throws Exception {
+		RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, 10, new SimpleMeterRegistry());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(new MockHttpServletRequest(), response, (request, chainResponse) -> {});
+		filter.doFilter(new MockHttpServletRequest(), response, (request, chainResponse) -> {});
+
+		assertEquals(HttpStatus.OK.value(), response.getStatus());
+	}
+
+	@Test
+	void rejectsWithServiceUnavailableWhenSaturated() throws Exception {
+		RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, 10, new SimpleMeterRegistry());
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try {
+				filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+						(request, response) -> {
+							entered.countDown();
+							try {
+								release.await();
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+						});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		holder.start();
+		entered.await();
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest(), rejected, (request, response) -> {});
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+		release.countDown();
+		holder.join();
+	}
+}
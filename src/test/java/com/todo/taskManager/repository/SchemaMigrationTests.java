@@ -0,0 +1,156 @@
+package com.todo.taskManager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the Flyway migrations against an embedded H2 database in MySQL mode
+ * and checks that the lookup queries are served by the declared indexes.
+ */
+class SchemaMigrationTests {
+
+	private static final String URL = "jdbc:h2:mem:schema;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@BeforeAll
+	static void migrate() {
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+	}
+
+	@Test
+	void todoLookupByUsernameUsesIndex() throws SQLException {
+		assertThat(explain("select * from todo where username = 'user' and id > 10 order by id"))
+				.contains("idx_todo_username_id");
+	}
+
+	@Test
+	void userLookupByUsernameUsesIndex() throws SQLException {
+		assertThat(explain("select * from `user` where username = 'user'")).contains("uk_user_username");
+	}
+
+	@Test
+	void userLookupByEmailUsesIndex() throws SQLException {
+		assertThat(explain("select * from `user` where email = 'user@example.com'")).contains("uk_user_email");
+	}
+
+	@Test
+	void usernameAndEmailAreUnique() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("insert into `user` (id, username, email, is_active, is_not_locked) "
+					+ "values (1, 'taken', 'taken@example.com', true, true)");
+			assertThat(insertFails(statement, "insert into `user` (id, username, email, is_active, is_not_locked) "
+					+ "values (2, 'taken', 'other@example.com', true, true)")).isTrue();
+			assertThat(insertFails(statement, "insert into `user` (id, username, email, is_active, is_not_locked) "
+					+ "values (3, 'other', 'taken@example.com', true, true)")).isTrue();
+			statement.execute("delete from `user`");
+		}
+	}
+
+	@Test
+	void todoIdGeneratorStartsAPooledBlockPastExistingIds() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+				Statement statement = connection.createStatement();
+				ResultSet row = statement.executeQuery(
+						"select next_val from todo_id_sequence where sequence_name = 'todo'")) {
+			assertThat(row.next()).isTrue();
+			// the first block of 50 ids ends at next_val
+			assertThat(row.getLong(1)).isEqualTo(51);
+		}
+	}
+
+	@Test
+	void dueDateMigrationParsesExistingTargetDates() throws SQLException {
+		String url = "jdbc:h2:mem:duedates;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+		Flyway.configure().dataSource(url, "sa", "").target("5").load().migrate();
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("insert into todo (id, done, target_date) values "
+					+ "(1, false, '2030-01-31'), (2, false, '2030-01-31T10:15:30Z'), "
+					+ "(3, false, '31/01/2030'), (4, false, 'next tuesday'), (5, false, null)");
+
+			Flyway.configure().dataSource(url, "sa", "").load().migrate();
+
+			try (ResultSet rows = statement.executeQuery("select id, due_at from todo order by id")) {
+				rows.next();
+				assertThat(rows.getTimestamp(2)).isEqualTo(Timestamp.valueOf("2030-01-31 00:00:00"));
+				rows.next();
+				assertThat(rows.getTimestamp(2).toInstant()).isEqualTo(Instant.parse("2030-01-31T10:15:30Z"));
+				rows.next();
+				assertThat(rows.getTimestamp(2)).isEqualTo(Timestamp.valueOf("2030-01-31 00:00:00"));
+				rows.next();
+				assertThat(rows.getTimestamp(2)).isNull();
+				rows.next();
+				assertThat(rows.getTimestamp(2)).isNull();
+			}
+			try (ResultSet rows = statement.executeQuery("select todo_id, target_date from todo_unparsed_target_date")) {
+				assertThat(rows.next()).isTrue();
+				assertThat(rows.getLong(1)).isEqualTo(4);
+				assertThat(rows.getString(2)).isEqualTo("next tuesday");
+				assertThat(rows.next()).isFalse();
+			}
+		}
+	}
+
+	@Test
+	void todosWrittenBeforeListVersionsGetTheirOwnersNextVersion() throws SQLException {
+		String url = "jdbc:h2:mem:stamping;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+		Flyway.configure().dataSource(url, "sa", "").target("7").load().migrate();
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("insert into todo_list_version (username, version) values ('alice', 3)");
+			statement.execute("insert into todo (id, done, username, version) values "
+					+ "(1, false, 'alice', 0), (2, false, 'alice', 3), (3, false, 'bob', 0), (4, false, null, 0)");
+
+			Flyway.configure().dataSource(url, "sa", "").load().migrate();
+
+			try (ResultSet rows = statement.executeQuery("select id, version from todo order by id")) {
+				rows.next();
+				assertThat(rows.getLong(2)).isEqualTo(4);
+				rows.next();
+				assertThat(rows.getLong(2)).isEqualTo(3);
+				rows.next();
+				assertThat(rows.getLong(2)).isEqualTo(1);
+				rows.next();
+				assertThat(rows.getLong(2)).isEqualTo(0);
+			}
+			try (ResultSet rows = statement.executeQuery("select username, version from todo_list_version order by username")) {
+				rows.next();
+				assertThat(rows.getLong(2)).isEqualTo(4);
+				rows.next();
+				assertThat(rows.getString(1)).isEqualTo("bob");
+				assertThat(rows.getLong(2)).isEqualTo(1);
+			}
+		}
+	}
+
+	private static boolean insertFails(Statement statement, String sql) {
+		try {
+			statement.execute(sql);
+			return false;
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+	private static String explain(String query) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+				Statement statement = connection.createStatement();
+				ResultSet plan = statement.executeQuery("explain " + query)) {
+			StringBuilder result = new StringBuilder();
+			while (plan.next()) {
+				result.append(plan.getString(1));
+			}
+			return result.toString().toLowerCase();
+		}
+	}
+}
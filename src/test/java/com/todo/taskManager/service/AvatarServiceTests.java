@@ -0,0 +1,42 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.todo.taskManager.domain.ProfileImage;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class AvatarServiceTests {
+
+	@Test
+	void rendersTheSameAvatarForTheSameUsername() throws IOException {
+		byte[] first = bytes(new AvatarService(10).getAvatar("user"));
+		byte[] second = bytes(new AvatarService(10).getAvatar("user"));
+
+		assertArrayEquals(first, second);
+	}
+
+	@Test
+	void rendersDifferentAvatarsForDifferentUsernames() throws IOException {
+		AvatarService service = new AvatarService(10);
+
+		assertFalse(Arrays.equals(bytes(service.getAvatar("alice")), bytes(service.getAvatar("bob"))));
+	}
+
+	@Test
+	void keepsTheAvatarInMemoryWithTheSameETagOnEveryNode() {
+		AvatarService service = new AvatarService(10);
+		ProfileImage avatar = service.getAvatar("user");
+
+		assertSame(avatar, service.getAvatar("user"));
+		assertEquals(avatar.getETag(), new AvatarService(10).getAvatar("user").getETag());
+	}
+
+	private static byte[] bytes(ProfileImage image) throws IOException {
+		return image.getResource().getInputStream().readAllBytes();
+	}
+}
@@ -0,0 +1,98 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class LoginAttemptStoreTests {
+
+	private static final String URL = "jdbc:h2:mem:attempts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final long WINDOW = TimeUnit.MINUTES.toMillis(15);
+	private static final long NOW = 1_700_000_000_000L;
+
+	private static DriverManagerDataSource dataSource;
+
+	@BeforeAll
+	static void migrate() {
+		dataSource = new DriverManagerDataSource(URL, "sa", "");
+		Flyway.configure().dataSource(dataSource).load().migrate();
+	}
+
+	@Test
+	void inMemoryStoreCountsFailuresInsideTheWindow() {
+		assertSlidingWindow(inMemoryStore(), "memory");
+	}
+
+	@Test
+	void jdbcStoreCountsFailuresInsideTheWindow() {
+		assertSlidingWindow(jdbcStore(), "jdbc");
+	}
+
+	@Test
+	void inMemoryStoreKeepsEveryKeyPastOneHundredUsers() {
+		LoginAttemptStore store = inMemoryStore();
+		for (int i = 0; i < 10_000; i++) {
+			store.recordFailure("user" + i, NOW);
+		}
+
+		assertEquals(1, store.countFailures("user0", NOW));
+		assertEquals(1, store.countFailures("user9999", NOW));
+	}
+
+	@Test
+	void concurrentFailuresAreNotLost() throws InterruptedException {
+		LoginAttemptStore store = new InMemoryLoginAttemptStore(1_000, WINDOW, 1_000, new SimpleMeterRegistry());
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 800; i++) {
+			executor.execute(() -> store.recordFailure("target", NOW));
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		assertEquals(800, store.countFailures("target", NOW));
+	}
+
+	@Test
+	void jdbcStoresShareCountsAcrossNodes() {
+		LoginAttemptStore firstNode = jdbcStore();
+		LoginAttemptStore secondNode = jdbcStore();
+
+		firstNode.recordFailure("shared", NOW);
+		secondNode.recordFailure("shared", NOW);
+
+		assertEquals(2, firstNode.countFailures("shared", NOW));
+		secondNode.clear("shared");
+		assertEquals(0, firstNode.countFailures("shared", NOW));
+	}
+
+	private static void assertSlidingWindow(LoginAttemptStore store, String username) {
+		store.recordFailure(username, NOW);
+		store.recordFailure(username, NOW + TimeUnit.MINUTES.toMillis(10));
+		assertEquals(3, store.recordFailure(username, NOW + TimeUnit.MINUTES.toMillis(12)));
+
+		long later = NOW + TimeUnit.MINUTES.toMillis(20);
+		assertEquals(2, store.countFailures(username, later));
+
+		store.purgeExpired(later);
+		assertEquals(2, store.countFailures(username, later));
+
+		store.clear(username);
+		assertEquals(0, store.countFailures(username, later));
+	}
+
+	private static LoginAttemptStore inMemoryStore() {
+		return new InMemoryLoginAttemptStore(5, WINDOW, 1_000_000, new SimpleMeterRegistry());
+	}
+
+	private static LoginAttemptStore jdbcStore() {
+		return new JdbcLoginAttemptStore(new JdbcTemplate(dataSource), WINDOW);
+	}
+}
@@ -0,0 +1,107 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProfileImageProcessorTests {
+
+	@TempDir
+	Path folder;
+
+	private ProfileImageProcessor processor;
+
+	@BeforeEach
+	void createProcessor() {
+		processor = new ProfileImageProcessor(new UserFileStorage(folder, folder.resolve("legacy"), false), new int[] { 256, 64 }, 1, 10, 1_000_000, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void shutdown() {
+		processor.shutdown();
+	}
+
+	@Test
+	void writesDownscaledJpegVariants() throws IOException {
+		Path upload = folder.resolve("user.jpg");
+		ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_ARGB), "png", upload.toFile());
+		long uploadedSize = Files.size(upload);
+
+		processor.process(upload);
+
+		assertDimensions(folder.resolve("user-64.jpg"), 64, 32);
+		assertDimensions(folder.resolve("user-256.jpg"), 256, 128);
+		assertDimensions(upload, 256, 128);
+		assertTrue(Files.size(upload) < uploadedSize);
+	}
+
+	@Test
+	void neverUpscalesSmallUploads() throws IOException {
+		Path upload = folder.resolve("user.jpg");
+		ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "png", upload.toFile());
+
+		processor.process(upload);
+
+		assertDimensions(folder.resolve("user-256.jpg"), 40, 20);
+	}
+
+	@Test
+	void subsamplesLargeUploadsToTheSameVariants() throws IOException {
+		Path upload = folder.resolve("user.jpg");
+		// decoded at every second pixel, still twice the largest variant
+		ImageIO.write(new BufferedImage(1200, 300, BufferedImage.TYPE_INT_RGB), "png", upload.toFile());
+
+		processor.process(upload);
+
+		assertDimensions(folder.resolve("user-64.jpg"), 64, 16);
+		assertDimensions(folder.resolve("user-256.jpg"), 256, 64);
+	}
+
+	@Test
+	void skipsUploadsOverThePixelLimit() throws IOException {
+		Path upload = folder.resolve("user.jpg");
+		ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png", upload.toFile());
+		long uploadedSize = Files.size(upload);
+
+		processor.process(upload);
+
+		assertFalse(Files.exists(folder.resolve("user-64.jpg")));
+		assertEquals(uploadedSize, Files.size(upload));
+	}
+
+	@Test
+	void dropsTheVariantsOfThePreviousImageOnSubmit() throws IOException {
+		Path upload = folder.resolve("user.jpg");
+		ImageIO.write(new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB), "png", upload.toFile());
+		processor.process(upload);
+		// not an image, so no new variants are written either
+		Files.write(upload, new byte[] { 1, 2, 3 });
+
+		processor.submit(upload);
+
+		assertFalse(Files.exists(folder.resolve("user-64.jpg")));
+		assertFalse(Files.exists(folder.resolve("user-256.jpg")));
+	}
+
+	@Test
+	void namesVariantsAfterTheStoredFile() {
+		assertEquals("user-64.jpg", ProfileImageProcessor.variantFileName("user.jpg", 64));
+	}
+
+	private static void assertDimensions(Path file, int width, int height) throws IOException {
+		BufferedImage image = ImageIO.read(file.toFile());
+		assertEquals(width, image.getWidth());
+		assertEquals(height, image.getHeight());
+	}
+}
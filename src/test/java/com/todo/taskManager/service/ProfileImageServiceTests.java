@@ -0,0 +1,92 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.todo.taskManager.domain.ProfileImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+class ProfileImageServiceTests {
+
+	@TempDir
+	Path root;
+
+	private UserFileStorage storage;
+	private ProfileImageService service;
+	private Path folder;
+
+	@BeforeEach
+	void createService() throws IOException {
+		storage = new UserFileStorage(root, root.resolve("legacy"), false);
+		folder = Files.createDirectories(storage.getUserFolder("user"));
+		service = new ProfileImageService(storage, new int[] { 64, 256 }, 1024, 16);
+	}
+
+	@Test
+	void servesSmallImagesFromMemory() throws IOException {
+		Files.write(folder.resolve("user.jpg"), new byte[] { 1, 2, 3 });
+
+		ProfileImage image = service.load("user", "user.jpg");
+
+		assertTrue(image.getResource() instanceof ByteArrayResource);
+		assertArrayEquals(new byte[] { 1, 2, 3 }, image.getResource().getInputStream().readAllBytes());
+	}
+
+	@Test
+	void streamsLargeImagesFromDisk() throws IOException {
+		Files.write(folder.resolve("user.jpg"), new byte[64]);
+
+		assertTrue(service.load("user", "user.jpg").getResource() instanceof FileSystemResource);
+	}
+
+	@Test
+	void reloadsCachedImageAfterItChanges() throws IOException {
+		Path file = folder.resolve("user.jpg");
+		Files.write(file, new byte[] { 1 });
+		Files.setLastModifiedTime(file, FileTime.fromMillis(1_000));
+		ProfileImage first = service.load("user", "user.jpg");
+
+		Files.write(file, new byte[] { 2 });
+		Files.setLastModifiedTime(file, FileTime.fromMillis(2_000));
+		ProfileImage second = service.load("user", "user.jpg");
+
+		assertNotEquals(first.getETag(), second.getETag());
+		assertArrayEquals(new byte[] { 2 }, second.getResource().getInputStream().readAllBytes());
+	}
+
+	@Test
+	void servesTheSmallestVariantThatFits() throws IOException {
+		Files.write(folder.resolve("user.jpg"), new byte[] { 1 });
+		Files.write(folder.resolve("user-64.jpg"), new byte[] { 2 });
+		Files.write(folder.resolve("user-256.jpg"), new byte[] { 3 });
+
+		assertArrayEquals(new byte[] { 2 }, bytes(service.load("user", "user.jpg", 48)));
+		assertArrayEquals(new byte[] { 3 }, bytes(service.load("user", "user.jpg", 100)));
+		assertArrayEquals(new byte[] { 1 }, bytes(service.load("user", "user.jpg", 1024)));
+		assertArrayEquals(new byte[] { 1 }, bytes(service.load("user", "user.jpg", null)));
+	}
+
+	@Test
+	void rejectsPathsOutsideTheUserFolder() throws IOException {
+		Path other = Files.createDirectories(storage.getUserFolder("other"));
+		Files.write(other.resolve("other.jpg"), new byte[] { 1 });
+
+		assertThrows(NoSuchFileException.class, () -> service.load("user", "../other/other.jpg"));
+		assertThrows(NoSuchFileException.class, () -> service.load("..", "other/other.jpg"));
+	}
+
+	private static byte[] bytes(ProfileImage image) throws IOException {
+		return image.getResource().getInputStream().readAllBytes();
+	}
+}
@@ -0,0 +1,174 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.todo.taskManager.constant.MetricConstant;
+import com.todo.taskManager.constant.TodoConstant;
+import com.todo.taskManager.exception.domain.EventSubscriptionLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class TodoEventBroadcasterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private TodoEventBroadcaster broadcaster;
+
+	@AfterEach
+	void shutdown() {
+		if (broadcaster != null) {
+			broadcaster.shutdown();
+		}
+	}
+
+	@Test
+	void limitsStreamsPerUserAndInTotal() throws EventSubscriptionLimitException {
+		broadcaster = new TodoEventBroadcaster(1, 8, 3, 2, 60000, 60000, meterRegistry);
+
+		broadcaster.subscribe("alice");
+		broadcaster.subscribe("alice");
+		assertThrows(EventSubscriptionLimitException.class, () -> broadcaster.subscribe("alice"));
+		broadcaster.subscribe("bob");
+		assertThrows(EventSubscriptionLimitException.class, () -> broadcaster.subscribe("carol"));
+
+		assertEquals(3, meterRegistry.get(MetricConstant.TODO_EVENTS_CONNECTIONS).gauge().value());
+	}
+
+	@Test
+	void tracksPublishedVersionsOnlyForStartedStreams() throws EventSubscriptionLimitException {
+		broadcaster = new TodoEventBroadcaster(1, 8, 10, 10, 60000, 60000, meterRegistry);
+
+		broadcaster.publish("alice", 3, TodoConstant.EVENT_DELETED, 1L);
+		assertNull(broadcaster.getPublishedVersion("alice"));
+
+		TodoEventBroadcaster.Subscriber subscriber = broadcaster.subscribe("alice");
+		broadcaster.start(subscriber, 3, TodoConstant.EVENT_CHANGES, "snapshot");
+		broadcaster.publish("alice", 5, TodoConstant.EVENT_DELETED, 2L);
+
+		assertEquals(5L, broadcaster.getPublishedVersion("alice"));
+		assertEquals(1, broadcaster.getSubscribedUsernames().size());
+	}
+
+	@Test
+	void deliversEveryEventNewerThanTheSnapshot() throws Exception {
+		RecordingEmitter emitter = new RecordingEmitter();
+		broadcaster = new TodoEventBroadcaster(1, 16, 10, 10, 60000, 60000, meterRegistry) {
+			@Override
+			SseEmitter createEmitter(long timeoutMillis) {
+				return emitter;
+			}
+		};
+		TodoEventBroadcaster.Subscriber subscriber = broadcaster.subscribe("alice");
+		// committed before the snapshot was read, so already part of it
+		broadcaster.publish("alice", 4, TodoConstant.EVENT_CREATED, 1L);
+		broadcaster.start(subscriber, 4, TodoConstant.EVENT_CHANGES, 0L);
+		// one batch shares a version, and version 7 commits before 6
+		broadcaster.publish("alice", 5, TodoConstant.EVENT_CREATED, 2L);
+		broadcaster.publish("alice", 5, TodoConstant.EVENT_CREATED, 3L);
+		broadcaster.publish("alice", 7, TodoConstant.EVENT_DELETED, 2L);
+		broadcaster.publish("alice", 6, TodoConstant.EVENT_UPDATED, 3L);
+
+		List<Object> delivered = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Object payload = emitter.payloads.poll(5, TimeUnit.SECONDS);
+			assertNotNull(payload);
+			delivered.add(payload);
+		}
+
+		assertEquals(Arrays.asList(0L, 2L, 3L, 2L, 3L), delivered);
+		assertNull(emitter.payloads.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void evictsAStreamThatFallsBehind() throws EventSubscriptionLimitException {
+		broadcaster = new TodoEventBroadcaster(1, 2, 10, 10, 60000, 60000, meterRegistry);
+		// not started, so nothing is drained and the buffer fills up
+		broadcaster.subscribe("alice");
+
+		broadcaster.publish("alice", 1, TodoConstant.EVENT_DELETED, 1L);
+		broadcaster.publish("alice", 2, TodoConstant.EVENT_DELETED, 2L);
+		assertTrue(broadcaster.hasSubscribers("alice"));
+		broadcaster.publish("alice", 3, TodoConstant.EVENT_DELETED, 3L);
+
+		assertFalse(broadcaster.hasSubscribers("alice"));
+		assertEquals(1, meterRegistry.get(MetricConstant.TODO_EVENTS_EVICTED).counter().count());
+		assertEquals(0, meterRegistry.get(MetricConstant.TODO_EVENTS_CONNECTIONS).gauge().value());
+	}
+
+	@Test
+	void cancelledStreamsFreeTheirSlot() throws EventSubscriptionLimitException {
+		broadcaster = new TodoEventBroadcaster(1, 8, 1, 1, 60000, 60000, meterRegistry);
+
+		broadcaster.cancel(broadcaster.subscribe("alice"));
+
+		assertFalse(broadcaster.hasSubscribers("alice"));
+		broadcaster.subscribe("alice");
+	}
+
+	@Test
+	void evictsAStreamWhoseWriteStalls() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		SseEmitter stalled = new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) {
+				// a client that stopped reading blocks the write like this
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		broadcaster = new TodoEventBroadcaster(1, 8, 10, 10, 60000, 200, meterRegistry) {
+			@Override
+			SseEmitter createEmitter(long timeoutMillis) {
+				return stalled;
+			}
+		};
+		TodoEventBroadcaster.Subscriber subscriber = broadcaster.subscribe("alice");
+		broadcaster.start(subscriber, 1, TodoConstant.EVENT_CHANGES, 0L);
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+		broadcaster.evictStalledSends();
+		assertTrue(broadcaster.hasSubscribers("alice"));
+		Thread.sleep(300);
+		broadcaster.evictStalledSends();
+		release.countDown();
+
+		assertFalse(broadcaster.hasSubscribers("alice"));
+		assertEquals(1, meterRegistry.get(MetricConstant.TODO_EVENTS_EVICTED).counter().count());
+		assertEquals(0, meterRegistry.get(MetricConstant.TODO_EVENTS_CONNECTIONS).gauge().value());
+	}
+
+	/** Keeps the payloads sent instead of writing them to a response. */
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final BlockingQueue<Object> payloads = new LinkedBlockingQueue<>();
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+				// the id, event name and framing are strings around the data
+				if (!(part.getData() instanceof String)) {
+					payloads.add(part.getData());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.todo.taskManager.domain.Todo;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TodoSearchIndexTests {
+
+	private TodoSearchIndex.UserIndex index;
+
+	@BeforeEach
+	void fill() {
+		index = new TodoSearchIndex.UserIndex();
+		put(1L, "Buy groceries", "milk, eggs and bread");
+		put(2L, "Call the bank", "about the groceries budget");
+		put(3L, "Renew passport", "bring photos");
+	}
+
+	@Test
+	void tokenizesCaseAndAccentInsensitively() {
+		assertEquals(Arrays.asList("cafe", "creme", "brulee", "2"),
+				TodoSearchIndex.tokenize("Café Crème-Brûlée #2"));
+	}
+
+	@Test
+	void ranksTitleMatchesAboveDescriptionMatches() {
+		assertEquals(Arrays.asList(1L, 2L), index.search(Collections.singletonList("groceries"), 10));
+	}
+
+	@Test
+	void requiresEveryWordAndMatchesTheLastAsAPrefix() {
+		assertEquals(Collections.singletonList(2L), index.search(Arrays.asList("groceries", "bud"), 10));
+		assertEquals(Collections.singletonList(3L), index.search(Collections.singletonList("pass"), 10));
+		assertEquals(Collections.emptyList(), index.search(Arrays.asList("pass", "milk"), 10));
+	}
+
+	@Test
+	void reflectsUpdatesAndDeletes() {
+		put(3L, "Renew driving licence", "");
+		assertEquals(Collections.emptyList(), index.search(Collections.singletonList("passport"), 10));
+		assertEquals(Collections.singletonList(3L), index.search(Collections.singletonList("licence"), 10));
+
+		index.remove(1L);
+		assertEquals(Collections.singletonList(2L), index.search(Collections.singletonList("groceries"), 10));
+	}
+
+	@Test
+	void suggestsTheMostCommonCompletionsFirst() {
+		put(4L, "Bring umbrella", "");
+		assertEquals(Arrays.asList("bring", "bread"), index.suggest("br", 2));
+	}
+
+	@Test
+	void limitsTheNumberOfResults() {
+		assertEquals(Collections.singletonList(1L), index.search(Collections.singletonList("groceries"), 1));
+	}
+
+	private void put(Long id, String title, String description) {
+		Todo todo = new Todo();
+		todo.setId(id);
+		todo.setTodoTitle(title);
+		todo.setDescription(description);
+		index.put(id, TodoSearchIndex.weigh(todo));
+	}
+}
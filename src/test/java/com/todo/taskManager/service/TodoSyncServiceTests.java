@@ -0,0 +1,95 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class TodoSyncServiceTests {
+
+	private static final String URL = "jdbc:h2:mem:todosync;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static JdbcTemplate jdbcTemplate;
+
+	private TodoSyncService syncService;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@BeforeEach
+	void createService() {
+		jdbcTemplate.update("delete from todo_list_version");
+		jdbcTemplate.update("delete from todo_tombstone");
+		syncService = new TodoSyncService(jdbcTemplate, 30);
+	}
+
+	@Test
+	void versionsGrowPerUser() {
+		assertEquals(0, syncService.currentVersion("alice"));
+
+		syncService.nextVersions(Collections.singleton("alice"));
+		Map<String, Long> versions = syncService.nextVersions(Arrays.asList("alice", "bob", null));
+
+		assertEquals(2L, versions.get("alice"));
+		assertEquals(1L, versions.get("bob"));
+		assertFalse(versions.containsKey(null));
+		assertEquals(2, syncService.currentVersion("alice"));
+	}
+
+	@Test
+	void readsVersionsOfSeveralUsersAtOnce() {
+		syncService.nextVersions(Arrays.asList("alice", "bob"));
+		syncService.nextVersions(Collections.singleton("bob"));
+
+		Map<String, Long> versions = syncService.currentVersions(Arrays.asList("alice", "bob", "carol"));
+
+		assertEquals(1L, versions.get("alice"));
+		assertEquals(2L, versions.get("bob"));
+		assertFalse(versions.containsKey("carol"));
+	}
+
+	@Test
+	void returnsTombstonesNewerThanTheClientVersion() {
+		syncService.tombstone("alice", Arrays.asList(1L, 2L), 3);
+		syncService.tombstone("alice", Collections.singleton(3L), 5);
+		syncService.tombstone("bob", Collections.singleton(4L), 6);
+
+		assertEquals(Arrays.asList(1L, 2L, 3L), sorted(syncService.deletedSince("alice", 2)));
+		assertEquals(Collections.singletonList(3L), syncService.deletedSince("alice", 3));
+
+		syncService.clearTombstone("alice", 3L);
+		assertTrue(syncService.deletedSince("alice", 3).isEmpty());
+	}
+
+	@Test
+	void clientsOlderThanPurgedTombstonesMustResync() {
+		syncService.nextVersions(Collections.singleton("alice"));
+		syncService.tombstone("alice", Collections.singleton(1L), 1);
+		jdbcTemplate.update("update todo_tombstone set deleted_at = 0");
+
+		syncService.purgeTombstones();
+
+		assertFalse(syncService.canSyncFrom("alice", 0));
+		assertTrue(syncService.canSyncFrom("alice", 1));
+		assertTrue(syncService.deletedSince("alice", 0).isEmpty());
+	}
+
+	private static List<Long> sorted(List<Long> ids) {
+		Collections.sort(ids);
+		return ids;
+	}
+}
@@ -0,0 +1,135 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.domain.User;
+import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.domain.VerifiedToken;
+import com.todo.taskManager.enumeration.Role;
+import com.todo.taskManager.utility.JWTTokenProvider;
+import com.todo.taskManager.utility.JwtKeyRing;
+import com.todo.taskManager.utility.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class TokenRevocationServiceTests {
+
+	private static final String URL = "jdbc:h2:mem:revocation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static JdbcTemplate jdbcTemplate;
+
+	@TempDir
+	Path keys;
+
+	private TokenRevocationList revocationList;
+	private TokenRevocationService revocationService;
+	private JWTTokenProvider tokenProvider;
+	private UserPrincipal principal;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@BeforeEach
+	void createProvider() {
+		jdbcTemplate.update("delete from revoked_token");
+		jdbcTemplate.update("delete from user_token_revocation");
+		revocationList = new TokenRevocationList();
+		revocationService = new TokenRevocationService(jdbcTemplate, revocationList);
+		tokenProvider = new JWTTokenProvider(new SimpleMeterRegistry(),
+				new JwtKeyRing(keys, SecurityConstant.KEY_ROTATION_INTERVAL), revocationList);
+		tokenProvider.init();
+
+		User user = new User();
+		user.setUsername("user");
+		user.setAuthorities(Role.ROLE_USER.getAuthorities());
+		principal = new UserPrincipal(user);
+	}
+
+	@Test
+	void revokedAccessTokenIsRejected() {
+		VerifiedToken token = tokenProvider.verifyToken(tokenProvider.generateJwtToken(principal));
+		assertTrue(tokenProvider.isTokenValid("user", token));
+
+		revocationService.revokeToken(token.getJti(), token.getExpiresAt().getTime());
+
+		assertFalse(tokenProvider.isTokenValid("user", token));
+	}
+
+	@Test
+	void revokingAUserRejectsEveryEarlierToken() throws InterruptedException {
+		VerifiedToken token = tokenProvider.verifyToken(tokenProvider.generateJwtToken(principal));
+		String refreshToken = tokenProvider.generateRefreshToken(principal);
+		// issue times have second precision
+		Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+
+		revocationService.revokeUser("user");
+
+		assertFalse(tokenProvider.isTokenValid("user", token));
+		assertThrows(JWTVerificationException.class, () -> tokenProvider.verifyRefreshToken(refreshToken));
+	}
+
+	@Test
+	void revokingAUserRejectsTokensFromTheSameSecond() {
+		VerifiedToken token = tokenProvider.verifyToken(tokenProvider.generateJwtToken(principal));
+
+		revocationService.revokeUser("user");
+
+		assertFalse(tokenProvider.isTokenValid("user", token));
+	}
+
+	@Test
+	void tokensIssuedAfterTheRevokedSecondStayValid() throws InterruptedException {
+		revocationService.revokeUser("user");
+		Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+
+		VerifiedToken token = tokenProvider.verifyToken(tokenProvider.generateJwtToken(principal));
+
+		assertTrue(tokenProvider.isTokenValid("user", token));
+	}
+
+	@Test
+	void aTokenIsRevokedOnlyOnce() {
+		long expiresAt = System.currentTimeMillis() + 60_000;
+		TokenRevocationService otherNode = new TokenRevocationService(jdbcTemplate, new TokenRevocationList());
+
+		assertTrue(revocationService.revokeToken("jti", expiresAt));
+		assertFalse(revocationService.revokeToken("jti", expiresAt));
+		assertFalse(otherNode.revokeToken("jti", expiresAt));
+	}
+
+	@Test
+	void refreshTokensCannotBeUsedAsAccessTokens() {
+		String refreshToken = tokenProvider.generateRefreshToken(principal);
+
+		assertThrows(JWTVerificationException.class, () -> tokenProvider.verifyToken(refreshToken));
+	}
+
+	@Test
+	void otherNodesPickUpRevocations() {
+		TokenRevocationList otherNode = new TokenRevocationList();
+		TokenRevocationService otherService = new TokenRevocationService(jdbcTemplate, otherNode);
+		otherService.load();
+
+		revocationService.revokeToken("jti", System.currentTimeMillis() + 60_000);
+		revocationService.revokeUser("user");
+		otherService.sync();
+
+		assertTrue(otherNode.isRevoked("jti", "other", 0));
+		assertTrue(otherNode.isRevoked(null, "user", System.currentTimeMillis() - 1_000));
+	}
+}
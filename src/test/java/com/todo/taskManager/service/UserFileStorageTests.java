@@ -0,0 +1,108 @@
+package com.todo.taskManager.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UserFileStorageTests {
+
+	@TempDir
+	Path root;
+
+	private Path legacy;
+	private UserFileStorage storage;
+
+	@BeforeEach
+	void createStorage() {
+		legacy = root.resolve("legacy");
+		storage = new UserFileStorage(root.resolve("storage"), legacy, true);
+	}
+
+	@Test
+	void shardsUserFoldersByHash() {
+		Path folder = storage.getUserFolder("user");
+
+		assertEquals("user", folder.getFileName().toString());
+		assertEquals(2, folder.getParent().getFileName().toString().length());
+		assertEquals(root.resolve("storage/users"), folder.getParent().getParent().getParent());
+	}
+
+	@Test
+	void storesIdenticalUploadsOnce() throws IOException {
+		Path first = storage.getUserFolder("alice").resolve("alice.jpg");
+		Path second = storage.getUserFolder("bob").resolve("bob.jpg");
+
+		String firstHash = storage.save(new ByteArrayInputStream(new byte[] { 1, 2, 3 }), first);
+		String secondHash = storage.save(new ByteArrayInputStream(new byte[] { 1, 2, 3 }), second);
+
+		assertEquals(firstHash, secondHash);
+		assertTrue(Files.isSameFile(first, second));
+		assertEquals(1, countFiles(root.resolve("storage/blobs")));
+	}
+
+	@Test
+	void replacesAnExistingFile() throws IOException {
+		Path target = storage.getUserFolder("user").resolve("user.jpg");
+
+		storage.save(new ByteArrayInputStream(new byte[] { 1 }), target);
+		storage.save(new ByteArrayInputStream(new byte[] { 2 }), target);
+
+		assertArrayEquals(new byte[] { 2 }, Files.readAllBytes(target));
+		try (Stream<Path> files = Files.list(target.getParent())) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void migratesLegacyFolders() throws IOException {
+		Files.createDirectories(legacy.resolve("user"));
+		Files.write(legacy.resolve("user/user.jpg"), new byte[] { 7 });
+
+		assertEquals(1, storage.migrateLegacyFolders());
+		assertEquals(0, storage.migrateLegacyFolders());
+
+		assertArrayEquals(new byte[] { 7 }, Files.readAllBytes(storage.getUserFolder("user").resolve("user.jpg")));
+		assertFalse(Files.exists(legacy.resolve("user")));
+	}
+
+	@Test
+	void purgesBlobsNoUserFileLinksTo() throws IOException {
+		Path target = storage.getUserFolder("user").resolve("user.jpg");
+		storage.save(new ByteArrayInputStream(new byte[] { 1 }), target);
+		storage.save(new ByteArrayInputStream(new byte[] { 2 }), target);
+		try (Stream<Path> files = Files.walk(root.resolve("storage/blobs"))) {
+			files.filter(Files::isRegularFile).forEach(this::age);
+		}
+
+		if (root.getFileSystem().supportedFileAttributeViews().contains("unix")) {
+			assertEquals(1, storage.purgeUnreferencedBlobs());
+			assertEquals(1, countFiles(root.resolve("storage/blobs")));
+		}
+		assertArrayEquals(new byte[] { 2 }, Files.readAllBytes(target));
+	}
+
+	private void age(Path file) {
+		try {
+			Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long countFiles(Path folder) throws IOException {
+		try (Stream<Path> files = Files.walk(folder)) {
+			return files.filter(Files::isRegularFile).count();
+		}
+	}
+}
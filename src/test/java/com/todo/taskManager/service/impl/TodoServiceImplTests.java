@@ -0,0 +1,181 @@
+package com.todo.taskManager.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.todo.taskManager.domain.Todo;
+import com.todo.taskManager.domain.TodoPatch;
+import com.todo.taskManager.exception.domain.TodoNotFoundException;
+import com.todo.taskManager.exception.domain.TodoVersionConflictException;
+import com.todo.taskManager.repository.TodoRepository;
+import com.todo.taskManager.service.TodoEventBroadcaster;
+import com.todo.taskManager.service.TodoSearchIndex;
+import com.todo.taskManager.service.TodoService;
+import com.todo.taskManager.service.TodoSyncService;
+import com.todo.taskManager.service.UserLookupCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs the conditional todo writes against H2 in MySQL mode, migrated by
+ * Flyway. Tests are not wrapped in a transaction so each service call
+ * commits or rolls back on its own, as it does behind a request.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:todoservice;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=none" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ TodoServiceImpl.class, TodoSyncService.class, TodoSearchIndex.class, TodoEventBroadcaster.class,
+		UserLookupCache.class, TodoServiceImplTests.Metrics.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TodoServiceImplTests {
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Autowired
+	private TodoSyncService todoSyncService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clear() {
+		jdbcTemplate.update("delete from todo");
+		jdbcTemplate.update("delete from todo_list_version");
+		jdbcTemplate.update("delete from todo_tombstone");
+	}
+
+	@Test
+	void updatesOnlyTheVersionThatWasRead() throws Exception {
+		Todo todo = todoService.addTodo(todo("alice", "Buy milk"));
+		long read = todo.getVersion();
+
+		todo.setTodoTitle("Buy oat milk");
+		Todo updated = todoService.updateTodo(todo, read);
+
+		assertTrue(updated.getVersion() > read);
+		assertEquals("Buy oat milk", todoRepository.findById(todo.getId()).get().getTodoTitle());
+
+		todo.setTodoTitle("Buy bread");
+		assertThrows(TodoVersionConflictException.class, () -> todoService.updateTodo(todo, read));
+		assertEquals("Buy oat milk", todoRepository.findById(todo.getId()).get().getTodoTitle());
+	}
+
+	@Test
+	void rollsBackTheListVersionOfARejectedWrite() throws Exception {
+		Todo todo = todoService.addTodo(todo("alice", "Buy milk"));
+		long listVersion = todoSyncService.currentVersion("alice");
+
+		todo.setTodoTitle("Buy bread");
+		assertThrows(TodoVersionConflictException.class, () -> todoService.updateTodo(todo, todo.getVersion() + 1));
+		assertThrows(TodoVersionConflictException.class,
+				() -> todoService.deleteTodo("alice", todo.getId(), todo.getVersion() + 1));
+
+		assertEquals(listVersion, todoSyncService.currentVersion("alice"));
+	}
+
+	@Test
+	void tellsAMissingTodoFromAChangedOne() throws Exception {
+		Todo todo = todoService.addTodo(todo("alice", "Buy milk"));
+		TodoPatch patch = new TodoPatch();
+		patch.setDone(true);
+
+		assertThrows(TodoNotFoundException.class,
+				() -> todoService.patchTodo("alice", todo.getId() + 1000, patch, null));
+		assertThrows(TodoNotFoundException.class, () -> todoService.patchTodo("bob", todo.getId(), patch, null));
+		assertThrows(TodoVersionConflictException.class,
+				() -> todoService.patchTodo("alice", todo.getId(), patch, todo.getVersion() + 1));
+		assertThrows(TodoNotFoundException.class, () -> todoService.deleteTodo("bob", todo.getId(), null));
+
+		Todo missing = todo("alice", "Gone");
+		missing.setId(todo.getId() + 1000);
+		assertThrows(TodoNotFoundException.class, () -> todoService.updateTodo(missing, null));
+	}
+
+	@Test
+	void patchesOnlyTheGivenFields() throws Exception {
+		Todo todo = todo("alice", "Buy milk");
+		todo.setDescription("semi-skimmed");
+		todo = todoService.addTodo(todo);
+		TodoPatch patch = new TodoPatch();
+		patch.setDone(true);
+
+		Todo patched = todoService.patchTodo("alice", todo.getId(), patch, todo.getVersion());
+
+		assertTrue(patched.getDone());
+		assertEquals("Buy milk", patched.getTodoTitle());
+		assertEquals("semi-skimmed", patched.getDescription());
+		assertEquals(todoSyncService.currentVersion("alice"), patched.getVersion());
+	}
+
+	@Test
+	void doesNotWriteATodoOfAnotherOwner() throws Exception {
+		Todo todo = todoService.addTodo(todo("alice", "Buy milk"));
+
+		todo.setUsername("bob");
+		assertThrows(TodoNotFoundException.class, () -> todoService.updateTodo(todo, todo.getVersion()));
+
+		assertEquals("alice", todoRepository.findById(todo.getId()).get().getUsername());
+		assertEquals(0, todoSyncService.currentVersion("bob"));
+	}
+
+	@Test
+	void deletesOnlyTheVersionThatWasRead() throws Exception {
+		Todo todo = todoService.addTodo(todo("alice", "Buy milk"));
+
+		assertThrows(TodoVersionConflictException.class,
+				() -> todoService.deleteTodo("alice", todo.getId(), todo.getVersion() + 1));
+		assertTrue(todoRepository.existsById(todo.getId()));
+
+		todoService.deleteTodo("alice", todo.getId(), todo.getVersion());
+
+		assertFalse(todoRepository.existsById(todo.getId()));
+		assertEquals(Collections.singletonList(todo.getId()), todoSyncService.deletedSince("alice", todo.getVersion()));
+	}
+
+	@Test
+	void deletesByIdAlone() throws Exception {
+		Todo todo = todoService.addTodo(todo("alice", "Buy milk"));
+
+		todoService.deleteTodo(todo.getId());
+
+		assertFalse(todoRepository.existsById(todo.getId()));
+		assertThrows(TodoNotFoundException.class, () -> todoService.deleteTodo(todo.getId()));
+	}
+
+	private static Todo todo(String username, String title) {
+		Todo todo = new Todo();
+		todo.setUsername(username);
+		todo.setTodoTitle(title);
+		return todo;
+	}
+
+	@TestConfiguration
+	static class Metrics {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
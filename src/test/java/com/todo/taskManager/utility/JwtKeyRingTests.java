@@ -0,0 +1,110 @@
+package com.todo.taskManager.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.todo.taskManager.constant.SecurityConstant;
+import com.todo.taskManager.domain.User;
+import com.todo.taskManager.domain.UserPrincipal;
+import com.todo.taskManager.enumeration.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JwtKeyRingTests {
+
+	@TempDir
+	Path directory;
+
+	private JwtKeyRing keyRing;
+	private JWTTokenProvider tokenProvider;
+	private UserPrincipal principal;
+
+	@BeforeEach
+	void createProvider() {
+		keyRing = new JwtKeyRing(directory, SecurityConstant.KEY_ROTATION_INTERVAL);
+		tokenProvider = provider(keyRing);
+
+		User user = new User();
+		user.setUsername("user");
+		user.setAuthorities(Role.ROLE_USER.getAuthorities());
+		principal = new UserPrincipal(user);
+	}
+
+	@Test
+	void signsWithTheNewestKeyAndTagsTheKid() {
+		String token = tokenProvider.generateJwtToken(principal);
+
+		assertEquals(keyRing.getSigningKey().getKid(), JWT.decode(token).getKeyId());
+		assertEquals("ES256", JWT.decode(token).getAlgorithm());
+		assertEquals("user", tokenProvider.getSubject(token));
+	}
+
+	@Test
+	void verifiesTokensSignedBeforeARotation() throws InterruptedException {
+		String token = tokenProvider.generateJwtToken(principal);
+		String oldKid = keyRing.getSigningKey().getKid();
+		Thread.sleep(2);
+		keyRing.rotate();
+
+		assertNotEquals(oldKid, keyRing.getSigningKey().getKid());
+		assertEquals("user", provider(keyRing).getSubject(token));
+	}
+
+	@Test
+	void anotherNodeSharingTheDirectoryVerifiesTokens() {
+		String token = tokenProvider.generateJwtToken(principal);
+
+		JwtKeyRing otherNode = new JwtKeyRing(directory, SecurityConstant.KEY_ROTATION_INTERVAL);
+
+		assertEquals("user", provider(otherNode).getSubject(token));
+	}
+
+	@Test
+	void aVerifyingNodeNeedsOnlyThePublicKeys(@TempDir Path publicKeys) throws IOException {
+		String token = tokenProvider.generateJwtToken(principal);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				"*" + SecurityConstant.PUBLIC_KEY_EXTENSION)) {
+			for (Path file : files) {
+				Files.copy(file, publicKeys.resolve(file.getFileName()));
+			}
+		}
+
+		JwtKeyRing verifyingNode = new JwtKeyRing(publicKeys, SecurityConstant.KEY_ROTATION_INTERVAL, false);
+		verifyingNode.rotateIfDue();
+
+		assertEquals("user", provider(verifyingNode).getSubject(token));
+		assertThrows(IllegalStateException.class, verifyingNode::getSigningKey);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(publicKeys,
+				"*" + SecurityConstant.PRIVATE_KEY_EXTENSION)) {
+			assertFalse(files.iterator().hasNext());
+		}
+	}
+
+	@Test
+	void rejectsTokensFromUnknownKeys() {
+		String forged = JWT.create()
+				.withKeyId("1")
+				.withIssuer(SecurityConstant.GET_ARRAYS_LLC)
+				.withSubject("user")
+				.sign(Algorithm.HMAC512("secret"));
+
+		assertThrows(JWTVerificationException.class, () -> tokenProvider.verifyToken(forged));
+	}
+
+	private static JWTTokenProvider provider(JwtKeyRing keyRing) {
+		JWTTokenProvider provider = new JWTTokenProvider(new SimpleMeterRegistry(), keyRing, new TokenRevocationList());
+		provider.init();
+		return provider;
+	}
+}
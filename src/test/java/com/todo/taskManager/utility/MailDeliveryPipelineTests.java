@@ -0,0 +1,226 @@
+package com.todo.taskManager.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailDeliveryPipelineTests {
+
+	private FakeSmtpServer server;
+	private Session session;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new FakeSmtpServer();
+		session = Session.getInstance(new Properties(), null);
+	}
+
+	@AfterEach
+	void stopServer() throws IOException {
+		server.close();
+	}
+
+	@Test
+	void deliversQueuedMessagesOverOneConnection() throws Exception {
+		MailDeliveryPipeline pipeline = pipeline(1);
+		for (int i = 0; i < 5; i++) {
+			pipeline.submit(message("user" + i + "@example.com"));
+		}
+
+		awaitDelivered(pipeline, 5);
+		pipeline.shutdown(1, TimeUnit.SECONDS);
+
+		assertEquals(5, server.messages.size());
+		assertEquals(1, server.connections.get());
+	}
+
+	@Test
+	void retriesWithBackoffAfterTransientFailure() throws Exception {
+		server.failures.set(2);
+		MailDeliveryPipeline pipeline = pipeline(1);
+		pipeline.submit(message("retry@example.com"));
+
+		awaitDelivered(pipeline, 1);
+		pipeline.shutdown(1, TimeUnit.SECONDS);
+
+		assertEquals(1, server.messages.size());
+		assertTrue(server.messages.get(0).contains("retry@example.com"));
+	}
+
+	@Test
+	void reservationsHoldQueueCapacityUntilUsedOrCancelled() throws Exception {
+		MailDeliveryPipeline pipeline = pipeline(1, 1);
+		MailDeliveryPipeline.Reservation reservation = pipeline.reserve();
+
+		assertThrows(MessagingException.class, pipeline::reserve);
+		assertThrows(MessagingException.class, () -> pipeline.submit(message("full@example.com")));
+
+		reservation.cancel();
+		pipeline.reserve().submit(message("reserved@example.com"));
+		awaitDelivered(pipeline, 1);
+		pipeline.shutdown(1, TimeUnit.SECONDS);
+
+		assertEquals(1, server.messages.size());
+		assertTrue(server.messages.get(0).contains("reserved@example.com"));
+	}
+
+	@Test
+	void keepsDeliveringAfterAMessageThatCannotBeSent() throws Exception {
+		MailDeliveryPipeline pipeline = pipeline(1);
+		Message broken = new MimeMessage(session) {
+			@Override
+			public javax.mail.Address[] getAllRecipients() {
+				throw new IllegalStateException("malformed address");
+			}
+		};
+		pipeline.submit(broken);
+		pipeline.submit(message("after@example.com"));
+
+		awaitDelivered(pipeline, 1);
+		pipeline.shutdown(1, TimeUnit.SECONDS);
+
+		assertEquals(0, pipeline.getPendingCount());
+		assertEquals(1, server.messages.size());
+		assertTrue(server.messages.get(0).contains("after@example.com"));
+	}
+
+	@Test
+	void dropsReservedMessagesSubmittedAfterShutdown() throws Exception {
+		MailDeliveryPipeline pipeline = pipeline(1);
+		MailDeliveryPipeline.Reservation reservation = pipeline.reserve();
+		pipeline.shutdown(1, TimeUnit.SECONDS);
+
+		reservation.submit(message("late@example.com"));
+
+		assertEquals(0, pipeline.getPendingCount());
+		assertEquals(0, pipeline.getQueueSize());
+	}
+
+	private MailDeliveryPipeline pipeline(int workers) {
+		return pipeline(workers, 100);
+	}
+
+	private MailDeliveryPipeline pipeline(int workers, int queueCapacity) {
+		return new MailDeliveryPipeline(session, "smtp", "127.0.0.1", server.getPort(), null, null,
+				workers, queueCapacity, 10, 5, 10, 30_000, new SimpleMeterRegistry());
+	}
+
+	private Message message(String to) throws MessagingException {
+		Message message = new MimeMessage(session);
+		message.setFrom(new InternetAddress("noreply@example.com"));
+		message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
+		message.setSubject("Your password");
+		message.setText("Hello " + to);
+		message.saveChanges();
+		return message;
+	}
+
+	private void awaitDelivered(MailDeliveryPipeline pipeline, int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while ((pipeline.getPendingCount() > 0 || server.messages.size() < expected)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+	}
+
+	/**
+	 * Minimal plain-text SMTP server that accepts every message and can be told
+	 * to answer the next MAIL commands with a transient 451 error.
+	 */
+	private static class FakeSmtpServer implements AutoCloseable {
+
+		private final ServerSocket serverSocket;
+		private final List<String> messages = new CopyOnWriteArrayList<>();
+		private final AtomicInteger connections = new AtomicInteger();
+		private final AtomicInteger failures = new AtomicInteger();
+
+		private FakeSmtpServer() throws IOException {
+			serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			Thread acceptor = new Thread(this::accept, "fake-smtp");
+			acceptor.setDaemon(true);
+			acceptor.start();
+		}
+
+		private int getPort() {
+			return serverSocket.getLocalPort();
+		}
+
+		private void accept() {
+			while (!serverSocket.isClosed()) {
+				try {
+					Socket socket = serverSocket.accept();
+					connections.incrementAndGet();
+					Thread handler = new Thread(() -> handle(socket), "fake-smtp-session");
+					handler.setDaemon(true);
+					handler.start();
+				} catch (IOException e) {
+					return;
+				}
+			}
+		}
+
+		private void handle(Socket socket) {
+			try (Socket client = socket;
+					BufferedReader in = new BufferedReader(
+							new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+					PrintWriter out = new PrintWriter(client.getOutputStream(), true)) {
+				reply(out, "220 localhost fake SMTP");
+				String line;
+				while ((line = in.readLine()) != null) {
+					String command = line.toUpperCase();
+					if (command.startsWith("MAIL") && failures.getAndUpdate(f -> Math.max(0, f - 1)) > 0) {
+						reply(out, "451 try again later");
+					} else if (command.startsWith("DATA")) {
+						reply(out, "354 end with <CRLF>.<CRLF>");
+						StringBuilder data = new StringBuilder();
+						while (!(line = in.readLine()).equals(".")) {
+							data.append(line).append('\n');
+						}
+						messages.add(data.toString());
+						reply(out, "250 queued");
+					} else if (command.startsWith("QUIT")) {
+						reply(out, "221 bye");
+						return;
+					} else {
+						reply(out, "250 OK");
+					}
+				}
+			} catch (IOException e) {
+				// client went away
+			}
+		}
+
+		private void reply(PrintWriter out, String line) {
+			out.print(line + "\r\n");
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			serverSocket.close();
+		}
+	}
+}
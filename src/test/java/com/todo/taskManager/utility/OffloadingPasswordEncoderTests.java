@@ -0,0 +1,95 @@
+package com.todo.taskManager.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.todo.taskManager.exception.domain.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class OffloadingPasswordEncoderTests {
+
+	private OffloadingPasswordEncoder encoder;
+
+	@AfterEach
+	void shutdown() {
+		if (encoder != null) {
+			encoder.shutdown();
+		}
+	}
+
+	@Test
+	void hashesAndMatchesOnTheHashingPool() {
+		encoder = new OffloadingPasswordEncoder(
+				new TimedBCryptPasswordEncoder(new SimpleMeterRegistry(), 4), 1, 4, 5000,
+				new SimpleMeterRegistry());
+
+		String hash = encoder.encode("secret");
+
+		assertTrue(encoder.matches("secret", hash));
+		assertFalse(encoder.matches("other", hash));
+	}
+
+	@Test
+	void asksForARehashOnlyWhenTheCostGoesUp() {
+		String oldHash = new TimedBCryptPasswordEncoder(new SimpleMeterRegistry(), 4).encode("secret");
+		TimedBCryptPasswordEncoder current = new TimedBCryptPasswordEncoder(new SimpleMeterRegistry(), 5);
+		String newerHash = new TimedBCryptPasswordEncoder(new SimpleMeterRegistry(), 6).encode("secret");
+
+		assertTrue(current.upgradeEncoding(oldHash));
+		assertFalse(current.upgradeEncoding(current.encode("secret")));
+		assertFalse(current.upgradeEncoding(newerHash));
+	}
+
+	@Test
+	void rejectsWhenTheQueueIsFull() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordEncoder blocking = new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return rawPassword.toString();
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return true;
+			}
+		};
+		encoder = new OffloadingPasswordEncoder(blocking, 1, 1, 5000, new SimpleMeterRegistry());
+
+		Thread first = new Thread(() -> encoder.encode("first"));
+		Thread second = new Thread(() -> encoder.encode("second"));
+		first.start();
+		started.await();
+		second.start();
+		// the queue slot is taken by the second call once it is waiting
+		while (second.getState() != Thread.State.TIMED_WAITING) {
+			Thread.sleep(1);
+		}
+
+		assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+		release.countDown();
+		first.join();
+		second.join();
+	}
+
+	@Test
+	void calibratesToTheHighestCostWithinTheBudget() {
+		// 10 ms at cost 10 doubles to 80 ms at cost 13
+		assertEquals(13, BCryptCostCalibrator.costFor(10_000_000, 100, 10, 14));
+		assertEquals(14, BCryptCostCalibrator.costFor(1_000_000, 10_000, 10, 14));
+		assertEquals(10, BCryptCostCalibrator.costFor(500_000_000, 100, 10, 14));
+	}
+}